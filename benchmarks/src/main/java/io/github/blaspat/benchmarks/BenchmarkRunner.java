@@ -0,0 +1,66 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.blaspat.benchmarks;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every benchmark at each requested thread count (default: 1 and all available processors), once for
+ * throughput in ops/s and once for average time in ns/op, with the GC profiler reporting gc.alloc.rate.norm
+ * (bytes allocated per operation).
+ *
+ * <pre>java -jar benchmarks/target/benchmarks.jar [threads...]</pre>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        int[] threadCounts = args.length == 0
+                ? new int[]{1, Runtime.getRuntime().availableProcessors()}
+                : parse(args);
+        for (int threads : threadCounts) {
+            run(threads, Mode.Throughput, TimeUnit.SECONDS);
+            run(threads, Mode.AverageTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void run(int threads, Mode mode, TimeUnit timeUnit) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include("io\\.github\\.blaspat\\.benchmarks\\..*Benchmark")
+                .threads(threads)
+                .mode(mode)
+                .timeUnit(timeUnit)
+                .addProfiler(GCProfiler.class)
+                .result("jmh-result-" + threads + "t-" + mode.shortLabel() + ".json")
+                .resultFormat(ResultFormatType.JSON);
+        new Runner(options.build()).run();
+    }
+
+    private static int[] parse(String[] args) {
+        int[] threadCounts = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            threadCounts[i] = Integer.parseInt(args[i]);
+        }
+        return threadCounts;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.blaspat.benchmarks;
+
+import io.github.blaspat.BinaryValueCodec;
+import io.github.blaspat.CompressingRedisSerializer;
+import io.github.blaspat.VersionedRedisSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of compressing and decompressing a JSON-like payload, against storing it uncompressed ({@code none}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"none", "zstd", "deflate"})
+    public String algorithm;
+
+    @Param({"65536", "524288"})
+    public int payloadBytes;
+
+    private CompressingRedisSerializer serializer;
+    private String value;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() {
+        VersionedRedisSerializer delegate = new VersionedRedisSerializer(
+                new BinaryValueCodec(getClass().getClassLoader()),
+                Collections.emptyList(),
+                getClass().getClassLoader(),
+                512,
+                64 * 1024);
+        serializer = new CompressingRedisSerializer(delegate, "none".equals(algorithm) ? null : algorithm, 1, 16 * 1024, null);
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder(payloadBytes + 64).append('[');
+        while (json.length() < payloadBytes) {
+            json.append("{\"id\":").append(random.nextInt(100_000))
+                    .append(",\"sku\":\"SKU-").append(random.nextInt(5_000))
+                    .append("\",\"price\":").append(random.nextInt(10_000) / 100d)
+                    .append(",\"status\":\"").append(random.nextBoolean() ? "ACTIVE" : "DISCONTINUED")
+                    .append("\"},");
+        }
+        value = json.append(']').toString();
+        serialized = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(serialized);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat.benchmarks;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Connection factory backed by a {@link ConcurrentHashMap}, so benchmarks measure the client-side wrapper
+ * rather than the network. Only the string and key commands used by the templates and cache writer are handled.
+ */
+public class InMemoryRedisConnectionFactory implements RedisConnectionFactory {
+
+    private final ConcurrentHashMap<ByteBuffer, byte[]> data = new ConcurrentHashMap<>();
+    private final RedisConnection connection = (RedisConnection) Proxy.newProxyInstance(
+            RedisConnection.class.getClassLoader(),
+            new Class<?>[]{RedisConnection.class},
+            (proxy, method, args) -> invoke(proxy, method.getName(), method.getReturnType(), args));
+
+    @Override
+    public RedisConnection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        throw new UnsupportedOperationException("Cluster is not supported by the in-memory stub");
+    }
+
+    @Override
+    public boolean getConvertPipelineAndTxResults() {
+        return false;
+    }
+
+    @Override
+    public RedisSentinelConnection getSentinelConnection() {
+        throw new UnsupportedOperationException("Sentinel is not supported by the in-memory stub");
+    }
+
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        return null;
+    }
+
+    private Object invoke(Object proxy, String name, Class<?> returnType, Object[] args) {
+        switch (name) {
+            case "get":
+                return data.get(ByteBuffer.wrap((byte[]) args[0]));
+            case "set":
+            case "setNX":
+                data.put(ByteBuffer.wrap((byte[]) args[0]), (byte[]) args[1]);
+                return Boolean.TRUE;
+            case "setEx":
+            case "pSetEx":
+                data.put(ByteBuffer.wrap((byte[]) args[0]), (byte[]) args[2]);
+                return Boolean.TRUE;
+            case "mGet": {
+                byte[][] keys = (byte[][]) args[0];
+                List<byte[]> values = new ArrayList<>(keys.length);
+                for (byte[] key : keys) {
+                    values.add(data.get(ByteBuffer.wrap(key)));
+                }
+                return values;
+            }
+            case "del":
+            case "unlink": {
+                long removed = 0;
+                for (byte[] key : (byte[][]) args[0]) {
+                    if (data.remove(ByteBuffer.wrap(key)) != null) {
+                        removed++;
+                    }
+                }
+                return removed;
+            }
+            case "exists":
+                return args[0] instanceof byte[] ? data.containsKey(ByteBuffer.wrap((byte[]) args[0])) : null;
+            case "stringCommands":
+            case "keyCommands":
+                return proxy;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "InMemoryRedisConnection";
+            default:
+                if (returnType == boolean.class) {
+                    return false;
+                }
+                return null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.blaspat.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.github.blaspat.benchmarks.ResilientRedisTemplateBenchmark.HIT_KEY;
+import static io.github.blaspat.benchmarks.ResilientRedisTemplateBenchmark.MISS_KEY;
+import static io.github.blaspat.benchmarks.ResilientRedisTemplateBenchmark.VALUE;
+
+/**
+ * Raw {@link RedisTemplate} and {@link org.springframework.data.redis.cache.RedisCache} over the same stub, the
+ * baseline the resilient wrappers are compared against.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisTemplateBaselineBenchmark {
+
+    private RedisTemplate<String, Object> redisTemplate;
+    private Cache cache;
+
+    @Setup
+    public void setUp() {
+        InMemoryRedisConnectionFactory connectionFactory = new InMemoryRedisConnectionFactory();
+        redisTemplate = ResilientRedisTemplateBenchmark.redisTemplate(connectionFactory);
+        redisTemplate.opsForValue().set(HIT_KEY, VALUE);
+        cache = ResilientCacheDecoratorBenchmark.redisCache(connectionFactory);
+        cache.put(HIT_KEY, VALUE);
+    }
+
+    @Benchmark
+    public Object templateGetHit() {
+        return redisTemplate.opsForValue().get(HIT_KEY);
+    }
+
+    @Benchmark
+    public Object templateGetMiss() {
+        return redisTemplate.opsForValue().get(MISS_KEY);
+    }
+
+    @Benchmark
+    public void templatePut() {
+        redisTemplate.opsForValue().set(HIT_KEY, VALUE);
+    }
+
+    @Benchmark
+    public Object cacheGetHit() {
+        return cache.get(HIT_KEY);
+    }
+
+    @Benchmark
+    public void cachePut() {
+        cache.put(HIT_KEY, VALUE);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.blaspat.benchmarks;
+
+import io.github.blaspat.CircuitBreakerManager;
+import io.github.blaspat.ResilientCacheDecorator;
+import io.github.blaspat.ResilientRedisMetrics;
+import io.github.blaspat.RetryManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.blaspat.benchmarks.ResilientRedisTemplateBenchmark.HIT_KEY;
+import static io.github.blaspat.benchmarks.ResilientRedisTemplateBenchmark.VALUE;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResilientCacheDecoratorBenchmark {
+
+    @Param({"false", "true"})
+    public boolean circuitBreaker;
+
+    @Param({"false", "true"})
+    public boolean retry;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private ResilientCacheDecorator cache;
+
+    @Setup
+    public void setUp() {
+        cache = new ResilientCacheDecorator(
+                redisCache(new InMemoryRedisConnectionFactory()),
+                retry ? new RetryManager(3, Duration.ofMillis(10), Duration.ofSeconds(1)) : null,
+                null,
+                metrics ? new ResilientRedisMetrics(new SimpleMeterRegistry()) : null);
+        if (circuitBreaker) {
+            cache.setIsolation(new CircuitBreakerManager(50, 80, Duration.ofSeconds(2), Duration.ofSeconds(30), 5, 100, 10), null);
+        }
+        cache.put(HIT_KEY, VALUE);
+    }
+
+    @Benchmark
+    public Object getHit() {
+        return cache.get(HIT_KEY);
+    }
+
+    @Benchmark
+    public Object getWithLoaderHit() {
+        return cache.get(HIT_KEY, () -> VALUE);
+    }
+
+    @Benchmark
+    public void put() {
+        cache.put(HIT_KEY, VALUE);
+    }
+
+    static Cache redisCache(InMemoryRedisConnectionFactory connectionFactory) {
+        RedisCacheManager cacheManager = RedisCacheManager
+                .builder(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory))
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.string())))
+                .build();
+        cacheManager.afterPropertiesSet();
+        return cacheManager.getCache("bench");
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.blaspat.benchmarks;
+
+import io.github.blaspat.RedisOperation;
+import io.github.blaspat.ResilientRedisMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of instrumenting one call: a hit counter increment plus a latency sample.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResilientRedisMetricsBenchmark {
+
+    @Param({"1.0", "0.1"})
+    public double latencySampleRate;
+
+    @Param({"true", "false"})
+    public boolean sloBuckets;
+
+    private ResilientRedisMetrics metrics;
+
+    @Setup
+    public void setUp() {
+        metrics = new ResilientRedisMetrics(
+                new SimpleMeterRegistry(),
+                sloBuckets ? ResilientRedisMetrics.DEFAULT_SLO_BUCKETS : Collections.<Duration>emptyList(),
+                false,
+                latencySampleRate);
+    }
+
+    @Benchmark
+    public void recordHit() {
+        metrics.recordHit(RedisOperation.GET);
+    }
+
+    @Benchmark
+    public void recordHitAndLatency() {
+        long start = metrics.startTimer();
+        metrics.recordHit(RedisOperation.GET);
+        metrics.stopTimer(RedisOperation.GET, start);
+    }
+
+    @Benchmark
+    public void recordHitByName() {
+        metrics.recordHit("get");
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.blaspat.benchmarks;
+
+import io.github.blaspat.CircuitBreakerManager;
+import io.github.blaspat.ResilientRedisMetrics;
+import io.github.blaspat.ResilientRedisTemplate;
+import io.github.blaspat.RetryManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResilientRedisTemplateBenchmark {
+
+    static final String HIT_KEY = "bench:hit";
+    static final String MISS_KEY = "bench:miss";
+    static final String VALUE = "value";
+
+    @Param({"false", "true"})
+    public boolean circuitBreaker;
+
+    @Param({"false", "true"})
+    public boolean retry;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private ResilientRedisTemplate<String, Object> template;
+
+    @Setup
+    public void setUp() {
+        RedisTemplate<String, Object> redisTemplate = redisTemplate(new InMemoryRedisConnectionFactory());
+        template = new ResilientRedisTemplate<>(
+                redisTemplate,
+                circuitBreaker ? new CircuitBreakerManager(50, 80, Duration.ofSeconds(2), Duration.ofSeconds(30), 5, 100, 10) : null,
+                retry ? new RetryManager(3, Duration.ofMillis(10), Duration.ofSeconds(1)) : null,
+                metrics ? new ResilientRedisMetrics(new SimpleMeterRegistry()) : null);
+        redisTemplate.opsForValue().set(HIT_KEY, VALUE);
+    }
+
+    @Benchmark
+    public Object getHit() {
+        return template.get(HIT_KEY);
+    }
+
+    @Benchmark
+    public Object getMiss() {
+        return template.get(MISS_KEY);
+    }
+
+    @Benchmark
+    public void put() {
+        template.put(HIT_KEY, VALUE);
+    }
+
+    static RedisTemplate<String, Object> redisTemplate(InMemoryRedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+        return redisTemplate;
+    }
+}
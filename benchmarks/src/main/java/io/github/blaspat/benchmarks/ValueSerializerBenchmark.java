@@ -0,0 +1,89 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.blaspat.benchmarks;
+
+import io.github.blaspat.BinaryValueCodec;
+import io.github.blaspat.EarlyRefreshEntry;
+import io.github.blaspat.VersionedRedisSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialize and deserialize cost of a typical cached value, JDK serialization against the binary codec.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueSerializerBenchmark {
+
+    @Param({"jdk", "binary"})
+    public String codec;
+
+    private VersionedRedisSerializer serializer;
+    private Object value;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() {
+        BinaryValueCodec binary = new BinaryValueCodec(getClass().getClassLoader());
+        serializer = new VersionedRedisSerializer(
+                "binary".equals(codec) ? binary : null,
+                Collections.singletonList(binary),
+                getClass().getClassLoader(),
+                512,
+                64 * 1024);
+        Map<String, Object> product = new LinkedHashMap<>();
+        product.put("id", 42L);
+        product.put("name", "Mechanical keyboard");
+        product.put("price", 129.9d);
+        product.put("inStock", true);
+        List<Object> tags = new ArrayList<>();
+        tags.add("peripherals");
+        tags.add("keyboards");
+        product.put("tags", tags);
+        value = new EarlyRefreshEntry(product, 15L, System.currentTimeMillis() + 60_000L);
+        serialized = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(serialized);
+    }
+}
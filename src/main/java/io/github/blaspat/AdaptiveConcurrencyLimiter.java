@@ -0,0 +1,138 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.blaspat;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gradient-style adaptive limit on in-flight Redis commands. A long-term exponential average of the round-trip time
+ * stands in for the no-load RTT; each sample moves the limit by {@code tolerance * longRtt / sampleRtt}, clamped to
+ * [0.5, 1], plus a {@code sqrt(limit)} allowance for queueing. Calls over the limit are rejected immediately.
+ * Releases never block: a sample that arrives while another release is updating the estimate is skipped.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final double longWindowFactor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ResilientRedisMetrics metrics;
+    private final AtomicBoolean sampling = new AtomicBoolean();
+    // Double bits, so drops and samples can update the limit with CAS
+    private final AtomicLong limit;
+    // Guarded by sampling
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            double smoothing,
+            double rttTolerance,
+            int longWindow,
+            ResilientRedisMetrics metrics) {
+        this.limit = new AtomicLong(Double.doubleToLongBits(initialLimit));
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.longWindowFactor = 2.0 / (Math.max(1, longWindow) + 1);
+        this.metrics = metrics;
+        if (metrics != null) {
+            metrics.registerConcurrencyLimiter(this);
+        }
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                if (metrics != null) {
+                    metrics.recordConcurrencyLimitRejection();
+                }
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        if (dropped) {
+            onDropped();
+        } else {
+            onSample(rttNanos, current);
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limit.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void onSample(long rttNanos, int inFlightAtRelease) {
+        if (!sampling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (longRttNanos == 0) {
+                longRttNanos = rttNanos;
+                return;
+            }
+            longRttNanos = longRttNanos + longWindowFactor * (rttNanos - longRttNanos);
+            // Forget a long RTT learned under overload once latency has recovered
+            if (longRttNanos / rttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+            long bits = limit.get();
+            double current = Double.longBitsToDouble(bits);
+            // An application-limited window says nothing about how much Redis can absorb
+            if (inFlightAtRelease < current / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / Math.max(1L, rttNanos)));
+            double target = current * gradient + Math.sqrt(current);
+            // Loses to a concurrent drop, whose backoff takes precedence
+            limit.compareAndSet(bits, Double.doubleToLongBits(clamp(current * (1 - smoothing) + target * smoothing)));
+        } finally {
+            sampling.set(false);
+        }
+    }
+
+    private void onDropped() {
+        while (true) {
+            long bits = limit.get();
+            if (limit.compareAndSet(bits, Double.doubleToLongBits(clamp(Double.longBitsToDouble(bits) * DROP_BACKOFF)))) {
+                return;
+            }
+        }
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
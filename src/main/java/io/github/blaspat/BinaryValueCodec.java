@@ -0,0 +1,303 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.springframework.cache.support.NullValue;
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact tagged binary codec. Strings, boxed primitives, byte arrays, {@code ArrayList}, {@code HashMap},
+ * {@code LinkedHashMap}, {@code HashSet}, {@code LinkedHashSet}, {@link EarlyRefreshEntry} and Spring's
+ * {@link NullValue} are written as a one-byte tag plus their fields, without class descriptors. Any other
+ * {@link Serializable} value is embedded with Java serialization.
+ */
+public class BinaryValueCodec implements ValueCodec {
+
+    public static final int ID = 2;
+
+    private static final int NULL = 0;
+    private static final int NULL_VALUE = 1;
+    private static final int TRUE = 2;
+    private static final int FALSE = 3;
+    private static final int INT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int FLOAT = 7;
+    private static final int SHORT = 8;
+    private static final int BYTE = 9;
+    private static final int CHAR = 10;
+    private static final int STRING = 11;
+    private static final int BYTES = 12;
+    private static final int BIG_INTEGER = 13;
+    private static final int BIG_DECIMAL = 14;
+    private static final int UUID_TAG = 15;
+    private static final int ARRAY_LIST = 16;
+    private static final int HASH_SET = 17;
+    private static final int LINKED_HASH_SET = 18;
+    private static final int HASH_MAP = 19;
+    private static final int LINKED_HASH_MAP = 20;
+    private static final int EARLY_REFRESH = 21;
+    private static final int JAVA = 127;
+
+    private final ClassLoader classLoader;
+
+    public BinaryValueCodec(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void encode(Object value, CodecOutput out) {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            out.writeString((String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeSignedVarLong((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeSignedVarLong((Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeInt(Float.floatToRawIntBits((Float) value));
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeSignedVarLong((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            out.writeByte(CHAR);
+            out.writeVarInt((Character) value);
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(BYTES);
+            out.writeVarInt(bytes.length);
+            out.writeBytes(bytes, 0, bytes.length);
+        } else if (value instanceof EarlyRefreshEntry) {
+            EarlyRefreshEntry entry = (EarlyRefreshEntry) value;
+            out.writeByte(EARLY_REFRESH);
+            out.writeVarLong(entry.getComputeMicros());
+            out.writeLong(entry.getExpiresAtMillis());
+            encode(entry.getValue(), out);
+        } else if (value instanceof NullValue) {
+            out.writeByte(NULL_VALUE);
+        } else if (value.getClass() == BigInteger.class) {
+            byte[] bytes = ((BigInteger) value).toByteArray();
+            out.writeByte(BIG_INTEGER);
+            out.writeVarInt(bytes.length);
+            out.writeBytes(bytes, 0, bytes.length);
+        } else if (value.getClass() == BigDecimal.class) {
+            BigDecimal decimal = (BigDecimal) value;
+            byte[] bytes = decimal.unscaledValue().toByteArray();
+            out.writeByte(BIG_DECIMAL);
+            out.writeSignedVarLong(decimal.scale());
+            out.writeVarInt(bytes.length);
+            out.writeBytes(bytes, 0, bytes.length);
+        } else if (value instanceof UUID) {
+            out.writeByte(UUID_TAG);
+            out.writeLong(((UUID) value).getMostSignificantBits());
+            out.writeLong(((UUID) value).getLeastSignificantBits());
+        } else if (value.getClass() == ArrayList.class) {
+            encodeCollection(ARRAY_LIST, (Collection<?>) value, out);
+        } else if (value.getClass() == HashSet.class) {
+            encodeCollection(HASH_SET, (Collection<?>) value, out);
+        } else if (value.getClass() == LinkedHashSet.class) {
+            encodeCollection(LINKED_HASH_SET, (Collection<?>) value, out);
+        } else if (value.getClass() == HashMap.class) {
+            encodeMap(HASH_MAP, (Map<?, ?>) value, out);
+        } else if (value.getClass() == LinkedHashMap.class) {
+            encodeMap(LINKED_HASH_MAP, (Map<?, ?>) value, out);
+        } else if (value instanceof Serializable) {
+            encodeJava(value, out);
+        } else {
+            throw new SerializationException("Cannot serialize " + value.getClass().getName() + ", it is not Serializable");
+        }
+    }
+
+    @Override
+    public Object decode(CodecInput in) {
+        int tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case NULL_VALUE:
+                return NullValue.INSTANCE;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INT:
+                return (int) in.readSignedVarLong();
+            case LONG:
+                return in.readSignedVarLong();
+            case DOUBLE:
+                return Double.longBitsToDouble(in.readLong());
+            case FLOAT:
+                return Float.intBitsToFloat(in.readInt());
+            case SHORT:
+                return (short) in.readSignedVarLong();
+            case BYTE:
+                return (byte) in.readByte();
+            case CHAR:
+                return (char) in.readVarInt();
+            case STRING:
+                return in.readString();
+            case BYTES:
+                return in.readBytes(in.readVarInt());
+            case BIG_INTEGER:
+                return new BigInteger(in.readBytes(in.readVarInt()));
+            case BIG_DECIMAL:
+                int scale = (int) in.readSignedVarLong();
+                return new BigDecimal(new BigInteger(in.readBytes(in.readVarInt())), scale);
+            case UUID_TAG:
+                return new UUID(in.readLong(), in.readLong());
+            case ARRAY_LIST: {
+                int size = readSize(in);
+                List<Object> list = new ArrayList<>(size);
+                decodeElements(list, size, in);
+                return list;
+            }
+            case HASH_SET: {
+                int size = readSize(in);
+                HashSet<Object> set = new HashSet<>(capacity(size));
+                decodeElements(set, size, in);
+                return set;
+            }
+            case LINKED_HASH_SET: {
+                int size = readSize(in);
+                LinkedHashSet<Object> set = new LinkedHashSet<>(capacity(size));
+                decodeElements(set, size, in);
+                return set;
+            }
+            case HASH_MAP: {
+                int size = readSize(in);
+                Map<Object, Object> map = new HashMap<>(capacity(size));
+                decodeEntries(map, size, in);
+                return map;
+            }
+            case LINKED_HASH_MAP: {
+                int size = readSize(in);
+                Map<Object, Object> map = new LinkedHashMap<>(capacity(size));
+                decodeEntries(map, size, in);
+                return map;
+            }
+            case EARLY_REFRESH: {
+                long computeMicros = in.readVarLong();
+                long expiresAtMillis = in.readLong();
+                return new EarlyRefreshEntry(decode(in), computeMicros, expiresAtMillis);
+            }
+            case JAVA:
+                return decodeJava(in);
+            default:
+                throw new SerializationException("Unknown value tag " + tag);
+        }
+    }
+
+    private void encodeCollection(int tag, Collection<?> collection, CodecOutput out) {
+        out.writeByte(tag);
+        out.writeVarInt(collection.size());
+        for (Object element : collection) {
+            encode(element, out);
+        }
+    }
+
+    private void encodeMap(int tag, Map<?, ?> map, CodecOutput out) {
+        out.writeByte(tag);
+        out.writeVarInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            encode(entry.getKey(), out);
+            encode(entry.getValue(), out);
+        }
+    }
+
+    private void decodeElements(Collection<Object> target, int size, CodecInput in) {
+        for (int i = 0; i < size; i++) {
+            target.add(decode(in));
+        }
+    }
+
+    private void decodeEntries(Map<Object, Object> target, int size, CodecInput in) {
+        for (int i = 0; i < size; i++) {
+            Object key = decode(in);
+            target.put(key, decode(in));
+        }
+    }
+
+    // Length is patched in after the stream is written, so the object graph is serialized straight into the buffer
+    private void encodeJava(Object value, CodecOutput out) {
+        out.writeByte(JAVA);
+        int lengthAt = out.position();
+        out.writeInt(0);
+        try (ObjectOutputStream stream = new ObjectOutputStream(out.asOutputStream())) {
+            stream.writeObject(value);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot serialize " + value.getClass().getName(), e);
+        }
+        out.writeIntAt(lengthAt, out.position() - lengthAt - 4);
+    }
+
+    private Object decodeJava(CodecInput in) {
+        int length = in.readInt();
+        try (ObjectInputStream stream = new ConfigurableObjectInputStream(in.slice(length), classLoader)) {
+            return stream.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new SerializationException("Cannot deserialize embedded Java value", e);
+        }
+    }
+
+    // Every element takes at least one byte, which bounds sizes read from corrupt values
+    private static int readSize(CodecInput in) {
+        int size = in.readVarInt();
+        if (size < 0 || size > in.remaining()) {
+            throw new SerializationException("Invalid collection size " + size);
+        }
+        return size;
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+}
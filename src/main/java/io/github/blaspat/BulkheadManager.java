@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.blaspat;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Semaphore bulkheads keyed like the circuit breakers in {@link CircuitBreakerManager}. Each name gets its own cap on
+ * concurrent calls; calls over the cap fail fast with {@link io.github.resilience4j.bulkhead.BulkheadFullException}.
+ */
+public class BulkheadManager {
+
+    private final BulkheadRegistry registry;
+    private final Map<String, Integer> maxConcurrentCallsByName;
+    private final Duration maxWaitDuration;
+    private final ResilientRedisMetrics metrics;
+    private final ConcurrentHashMap<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public BulkheadManager(int maxConcurrentCalls, Duration maxWaitDuration, ResilientRedisMetrics metrics) {
+        this(maxConcurrentCalls, Collections.emptyMap(), maxWaitDuration, metrics);
+    }
+
+    public BulkheadManager(
+            int maxConcurrentCalls,
+            Map<String, Integer> maxConcurrentCallsByName,
+            Duration maxWaitDuration,
+            ResilientRedisMetrics metrics) {
+        this.registry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(maxWaitDuration)
+                .build());
+        this.maxConcurrentCallsByName = maxConcurrentCallsByName;
+        this.maxWaitDuration = maxWaitDuration;
+        this.metrics = metrics;
+    }
+
+    public <T> T execute(String name, Supplier<T> supplier) {
+        return getBulkhead(name).executeSupplier(supplier);
+    }
+
+    public void execute(String name, Runnable runnable) {
+        getBulkhead(name).executeRunnable(runnable);
+    }
+
+    public <T> CompletionStage<T> executeAsync(String name, Supplier<CompletionStage<T>> supplier) {
+        return getBulkhead(name).executeCompletionStage(supplier);
+    }
+
+    public Bulkhead getBulkhead(String name) {
+        Bulkhead existing = bulkheads.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        return bulkheads.computeIfAbsent(name, this::create);
+    }
+
+    private Bulkhead create(String name) {
+        Integer limit = maxConcurrentCallsByName.get(name);
+        Bulkhead bulkhead = limit == null
+                ? registry.bulkhead(name)
+                : registry.bulkhead(name, BulkheadConfig.custom()
+                        .maxConcurrentCalls(limit)
+                        .maxWaitDuration(maxWaitDuration)
+                        .build());
+        if (metrics != null) {
+            metrics.registerBulkhead(bulkhead);
+        }
+        return bulkhead;
+    }
+}
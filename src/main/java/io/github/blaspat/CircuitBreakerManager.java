@@ -23,12 +23,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
+/**
+ * Circuit breakers created lazily from one shared configuration, one per name. The templates key them by operation
+ * category ({@code read}, {@code write}, {@code clear}) and the cache decorator by cache name, so each keeps its own
+ * sliding window and one degraded workload does not open the circuit for the others.
+ */
 public class CircuitBreakerManager {
 
+    private static final String DEFAULT_NAME = "redis";
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final CircuitBreakerRegistry registry;
+    private final ConcurrentHashMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
     private final CircuitBreaker circuitBreaker;
+    private boolean perName = true;
 
     public CircuitBreakerManager(
             int failureRateThreshold,
@@ -49,13 +61,15 @@ public class CircuitBreakerManager {
                 .minimumNumberOfCalls(minimumCalls)
                 .build();
 
-        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
-        this.circuitBreaker = registry.circuitBreaker("redis");
-        this.circuitBreaker.getEventPublisher()
-                .onStateTransition(event ->
-                        logger.warn("Redis circuit breaker state changed: {} -> {}",
-                                event.getStateTransition().getFromState(),
-                                event.getStateTransition().getToState()));
+        this.registry = CircuitBreakerRegistry.of(config);
+        this.circuitBreaker = getCircuitBreaker(DEFAULT_NAME);
+    }
+
+    /**
+     * When disabled every name resolves to the single shared {@code redis} breaker.
+     */
+    public void setPerName(boolean perName) {
+        this.perName = perName;
     }
 
     public <T> T execute(Supplier<T> supplier) {
@@ -66,15 +80,73 @@ public class CircuitBreakerManager {
         circuitBreaker.executeRunnable(runnable);
     }
 
+    public <T> CompletionStage<T> executeAsync(Supplier<CompletionStage<T>> supplier) {
+        return circuitBreaker.executeCompletionStage(supplier);
+    }
+
+    public <T> T execute(String name, Supplier<T> supplier) {
+        return getCircuitBreaker(name).executeSupplier(supplier);
+    }
+
+    public void execute(String name, Runnable runnable) {
+        getCircuitBreaker(name).executeRunnable(runnable);
+    }
+
+    public <T> CompletionStage<T> executeAsync(String name, Supplier<CompletionStage<T>> supplier) {
+        return getCircuitBreaker(name).executeCompletionStage(supplier);
+    }
+
+    /**
+     * Shared {@code redis} breaker, which only guards the unnamed {@code execute} methods. The templates and the
+     * cache decorator use per-category and per-cache breakers, so this one does not reflect their state.
+     *
+     * @deprecated use {@link #getCircuitBreaker(String)} with the operation category or cache name
+     */
+    @Deprecated
     public CircuitBreaker getCircuitBreaker() {
         return circuitBreaker;
     }
 
+    public CircuitBreaker getCircuitBreaker(String name) {
+        CircuitBreaker existing = circuitBreakers.get(perName ? name : DEFAULT_NAME);
+        if (existing != null) {
+            return existing;
+        }
+        return circuitBreakers.computeIfAbsent(perName ? name : DEFAULT_NAME, this::create);
+    }
+
+    private CircuitBreaker create(String name) {
+        CircuitBreaker created = registry.circuitBreaker(name);
+        created.getEventPublisher()
+                .onStateTransition(event ->
+                        logger.warn("Redis circuit breaker '{}' state changed: {} -> {}",
+                                name,
+                                event.getStateTransition().getFromState(),
+                                event.getStateTransition().getToState()));
+        return created;
+    }
+
+    /**
+     * Whether any breaker created so far is open, so a single open category or cache reports the manager as open.
+     * Use {@link #getCircuitBreaker(String)} to check one category or cache.
+     */
     public boolean isOpen() {
-        return circuitBreaker.getState() == CircuitBreaker.State.OPEN;
+        return anyInState(CircuitBreaker.State.OPEN);
     }
 
+    /**
+     * Whether any breaker created so far is half-open.
+     */
     public boolean is_half_open() {
-        return circuitBreaker.getState() == CircuitBreaker.State.HALF_OPEN;
+        return anyInState(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    private boolean anyInState(CircuitBreaker.State state) {
+        for (CircuitBreaker breaker : circuitBreakers.values()) {
+            if (breaker.getState() == state) {
+                return true;
+            }
+        }
+        return false;
     }
 }
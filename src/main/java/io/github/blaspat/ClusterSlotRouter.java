@@ -0,0 +1,47 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.blaspat;
+
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+/**
+ * Maps keys to hash slots and to the node currently serving them, from the topology the cluster client keeps
+ * refreshed. Used to group multi-key commands by slot and to name per-node circuit breakers.
+ */
+public class ClusterSlotRouter {
+
+    private final LettuceConnectionFactory connectionFactory;
+
+    public ClusterSlotRouter(LettuceConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    public int slot(byte[] key) {
+        return SlotHash.getSlot(key);
+    }
+
+    public String node(byte[] key) {
+        RedisClusterClient client = (RedisClusterClient) connectionFactory.getRequiredNativeClient();
+        RedisClusterNode node = client.getPartitions().getPartitionBySlot(slot(key));
+        if (node == null || node.getUri() == null) {
+            return "unassigned";
+        }
+        return node.getUri().getHost() + ":" + node.getUri().getPort();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read cursor over a serialized value, used by {@link ValueCodec}s. Reads directly from the array returned by Redis
+ * without copying it.
+ */
+public final class CodecInput {
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    public CodecInput(byte[] buffer, int offset, int limit) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = limit;
+    }
+
+    public int readByte() {
+        require(1);
+        return buffer[position++];
+    }
+
+    public byte[] readBytes(int length) {
+        require(length);
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint");
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varlong");
+    }
+
+    public long readSignedVarLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public int readInt() {
+        require(4);
+        int value = ((buffer[position] & 0xFF) << 24)
+                | ((buffer[position + 1] & 0xFF) << 16)
+                | ((buffer[position + 2] & 0xFF) << 8)
+                | (buffer[position + 3] & 0xFF);
+        position += 4;
+        return value;
+    }
+
+    public long readLong() {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    public String readString() {
+        int length = readVarInt();
+        require(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    /**
+     * Stream over the next {@code length} bytes; the cursor is moved past them immediately.
+     */
+    public InputStream slice(int length) {
+        require(length);
+        InputStream in = new ByteArrayInputStream(buffer, position, length);
+        position += length;
+        return in;
+    }
+
+    public int remaining() {
+        return limit - position;
+    }
+
+    private void require(int length) {
+        if (length < 0 || length > limit - position) {
+            throw new SerializationException("Truncated value, needed " + length + " bytes but " + remaining() + " remain");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable write buffer used by {@link ValueCodec}s. Instances are reused per thread by
+ * {@link VersionedRedisSerializer}, so codecs must not keep a reference after {@code encode} returns.
+ */
+public final class CodecOutput {
+
+    private byte[] buffer;
+    private int position;
+
+    public CodecOutput(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    public void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    // ZigZag keeps small negative numbers short
+    public void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeInt(int value) {
+        ensureCapacity(4);
+        writeIntAt(position, value);
+        position += 4;
+    }
+
+    public void writeIntAt(int at, int value) {
+        buffer[at] = (byte) (value >>> 24);
+        buffer[at + 1] = (byte) (value >>> 16);
+        buffer[at + 2] = (byte) (value >>> 8);
+        buffer[at + 3] = (byte) value;
+    }
+
+    public void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    public void writeString(String value) {
+        int length = value.length();
+        // ASCII is written straight from the chars, anything else goes through the UTF-8 encoder
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(utf8.length);
+                writeBytes(utf8, 0, utf8.length);
+                return;
+            }
+        }
+        writeVarInt(length);
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+    }
+
+    public int position() {
+        return position;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    public OutputStream asOutputStream() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) {
+                writeByte(b);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                writeBytes(bytes, offset, length);
+            }
+        };
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+
+    void reset() {
+        position = 0;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + extra));
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.protocol.CompleteableCommand;
+import io.lettuce.core.protocol.ProtocolKeyword;
+import io.lettuce.core.protocol.RedisCommand;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lettuce timeout source that gives each command a timeout by kind (get, put, evict, scan, clear) instead of one
+ * timeout for everything. In adaptive mode get, put and evict timeouts follow the p99 latency observed for their kind
+ * over the last window times a safety factor, kept between a floor and a ceiling; until a window has enough samples
+ * the configured timeout applies. A {@link RedisDeadline} on the calling thread caps every timeout.
+ */
+public class CommandTimeouts extends TimeoutOptions.TimeoutSource {
+
+    public enum Kind {
+        GET(true), PUT(true), EVICT(true), SCAN(false), CLEAR(false);
+
+        private final boolean adaptive;
+
+        Kind(boolean adaptive) {
+            this.adaptive = adaptive;
+        }
+    }
+
+    // Lettuce treats a zero timeout as no timeout, so an expired deadline still gets a positive one
+    private static final long MIN_TIMEOUT_NANOS = 1_000L;
+
+    private final long defaultNanos;
+    private final long[] configuredNanos = new long[Kind.values().length];
+    private final LatencyWindow[] windows = new LatencyWindow[Kind.values().length];
+    private final double safetyFactor;
+    private final long floorNanos;
+    private final long ceilingNanos;
+
+    /**
+     * @param timeouts timeout per kind, kinds without one use {@code defaultTimeout}
+     * @param adaptiveWindow window over which p99 is measured, {@code null} turns adaptive timeouts off
+     */
+    public CommandTimeouts(
+            Duration defaultTimeout,
+            Map<Kind, Duration> timeouts,
+            Duration adaptiveWindow,
+            int minSamples,
+            double safetyFactor,
+            Duration floor,
+            Duration ceiling) {
+        this.defaultNanos = defaultTimeout.toNanos();
+        for (Kind kind : Kind.values()) {
+            Duration timeout = timeouts.get(kind);
+            configuredNanos[kind.ordinal()] = timeout != null ? timeout.toNanos() : defaultNanos;
+            if (adaptiveWindow != null && kind.adaptive) {
+                windows[kind.ordinal()] = new LatencyWindow(adaptiveWindow.toNanos(), Math.max(1, minSamples));
+            }
+        }
+        this.safetyFactor = safetyFactor;
+        this.floorNanos = floor.toNanos();
+        this.ceilingNanos = Math.max(floorNanos, ceiling.toNanos());
+    }
+
+    public static Map<Kind, Duration> timeouts() {
+        return new EnumMap<>(Kind.class);
+    }
+
+    @Override
+    public long getTimeout(RedisCommand<?, ?, ?> command) {
+        Kind kind = kind(command.getType());
+        long timeout = kind != null ? timeoutNanos(kind) : defaultNanos;
+        long remaining = RedisDeadline.remainingNanos();
+        if (remaining < timeout) {
+            timeout = Math.max(MIN_TIMEOUT_NANOS, remaining);
+        }
+        LatencyWindow window = kind != null ? windows[kind.ordinal()] : null;
+        if (window != null && command instanceof CompleteableCommand) {
+            long start = System.nanoTime();
+            ((CompleteableCommand<?>) command).onComplete((value, error) -> window.record(System.nanoTime() - start));
+        }
+        return timeout;
+    }
+
+    @Override
+    public TimeUnit getTimeUnit() {
+        return TimeUnit.NANOSECONDS;
+    }
+
+    /**
+     * Timeout currently applied to commands of {@code kind}, ignoring any deadline.
+     */
+    public Duration currentTimeout(Kind kind) {
+        return Duration.ofNanos(timeoutNanos(kind));
+    }
+
+    /**
+     * Longest timeout any command can get, which the client-side wait must not undercut.
+     */
+    public Duration maxTimeout() {
+        long max = defaultNanos;
+        for (Kind kind : Kind.values()) {
+            max = Math.max(max, configuredNanos[kind.ordinal()]);
+            if (windows[kind.ordinal()] != null) {
+                max = Math.max(max, ceilingNanos);
+            }
+        }
+        return Duration.ofNanos(max);
+    }
+
+    LatencyWindow window(Kind kind) {
+        return windows[kind.ordinal()];
+    }
+
+    private long timeoutNanos(Kind kind) {
+        LatencyWindow window = windows[kind.ordinal()];
+        long p99 = window != null ? window.p99Nanos : 0L;
+        if (p99 <= 0) {
+            return configuredNanos[kind.ordinal()];
+        }
+        return Math.min(ceilingNanos, Math.max(floorNanos, (long) (p99 * safetyFactor)));
+    }
+
+    private static Kind kind(ProtocolKeyword type) {
+        if (!(type instanceof CommandType)) {
+            return null;
+        }
+        switch ((CommandType) type) {
+            case GET:
+            case MGET:
+            case GETEX:
+            case EXISTS:
+            case TTL:
+            case PTTL:
+                return Kind.GET;
+            case SET:
+            case SETEX:
+            case PSETEX:
+            case SETNX:
+            case MSET:
+            case EXPIRE:
+            case PEXPIRE:
+                return Kind.PUT;
+            case DEL:
+            case UNLINK:
+                return Kind.EVICT;
+            case SCAN:
+            case KEYS:
+                return Kind.SCAN;
+            case FLUSHDB:
+            case FLUSHALL:
+                return Kind.CLEAR;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Log-linear latency histogram (four buckets per power of two) that publishes its p99 and starts over once per
+     * window. Buckets are only summed at rotation, so reading the timeout is a volatile read.
+     */
+    static final class LatencyWindow {
+        private static final int SUB_BUCKETS = 4;
+        private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong rotateAt;
+        private final long windowNanos;
+        private final int minSamples;
+        volatile long p99Nanos;
+
+        LatencyWindow(long windowNanos, int minSamples) {
+            this.windowNanos = windowNanos;
+            this.minSamples = minSamples;
+            this.rotateAt = new AtomicLong(System.nanoTime() + windowNanos);
+        }
+
+        void record(long nanos) {
+            counts.incrementAndGet(bucket(Math.max(SUB_BUCKETS, nanos)));
+            long now = System.nanoTime();
+            long due = rotateAt.get();
+            if (now - due >= 0 && rotateAt.compareAndSet(due, now + windowNanos)) {
+                rotate();
+            }
+        }
+
+        void rotate() {
+            long total = 0;
+            long[] snapshot = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = counts.getAndSet(i, 0);
+                total += snapshot[i];
+            }
+            if (total < minSamples) {
+                // Too few samples to trust, keep the last p99 rather than reverting to the configured timeout
+                return;
+            }
+            long rank = (long) Math.ceil(total * 0.99);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    p99Nanos = upperBound(i);
+                    return;
+                }
+            }
+        }
+
+        static int bucket(long nanos) {
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            int sub = (int) (nanos >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+            return exponent * SUB_BUCKETS + sub;
+        }
+
+        static long upperBound(int bucket) {
+            int exponent = bucket / SUB_BUCKETS;
+            int sub = bucket % SUB_BUCKETS;
+            if (exponent >= 62) {
+                return Long.MAX_VALUE;
+            }
+            return (long) (SUB_BUCKETS + sub + 1) << (exponent - 2);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdException;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.ClassUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses serialized values of at least {@code thresholdBytes} and frames them as
+ * {@code [MAGIC, algorithmId, originalLength(4), payload]}. Values that do not shrink are stored as written by the
+ * delegate. Compressed values are always readable, also with compression disabled, so it can be switched off
+ * without losing entries. The original length is read from Redis and checked against {@code maxDecompressedBytes}
+ * before anything is allocated for it.
+ */
+public class CompressingRedisSerializer implements RedisSerializer<Object> {
+
+    // Follows the value serializer's 0xB1, also not a UTF-8 lead byte
+    static final byte MAGIC = (byte) 0xB2;
+    private static final int HEADER_LENGTH = 6;
+    private static final int DEFLATE = 1;
+    private static final int ZSTD = 2;
+    private static final boolean ZSTD_PRESENT =
+            ClassUtils.isPresent("com.github.luben.zstd.Zstd", CompressingRedisSerializer.class.getClassLoader());
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    static final int DEFAULT_MAX_DECOMPRESSED_BYTES = 64 * 1024 * 1024;
+
+    private final RedisSerializer<Object> delegate;
+    private final Compressor compressor;
+    private final int thresholdBytes;
+    private final int maxDecompressedBytes;
+    private final ResilientRedisMetrics metrics;
+    private final Compressor[] decompressors;
+
+    /**
+     * @param algorithm {@code zstd}, {@code deflate}, or {@code null} to only read compressed values
+     */
+    public CompressingRedisSerializer(
+            RedisSerializer<Object> delegate,
+            String algorithm,
+            int level,
+            int thresholdBytes,
+            ResilientRedisMetrics metrics) {
+        this(delegate, algorithm, level, thresholdBytes, DEFAULT_MAX_DECOMPRESSED_BYTES, metrics);
+    }
+
+    /**
+     * @param maxDecompressedBytes largest original length accepted when reading, larger values fail to deserialize
+     */
+    public CompressingRedisSerializer(
+            RedisSerializer<Object> delegate,
+            String algorithm,
+            int level,
+            int thresholdBytes,
+            int maxDecompressedBytes,
+            ResilientRedisMetrics metrics) {
+        this.delegate = delegate;
+        this.thresholdBytes = thresholdBytes;
+        this.maxDecompressedBytes = maxDecompressedBytes;
+        this.metrics = metrics;
+        this.decompressors = new Compressor[]{null, new DeflateCompressor(level), ZSTD_PRESENT ? new ZstdCompressor(level) : null};
+        this.compressor = algorithm != null ? compressor(algorithm) : null;
+        if (metrics != null) {
+            metrics.registerCompression();
+        }
+    }
+
+    public static boolean isZstdAvailable() {
+        return ZSTD_PRESENT;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (compressor == null || bytes == null || bytes.length < thresholdBytes) {
+            return bytes;
+        }
+        long start = cpuTime();
+        // Output is capped below the input size, so incompressible values stop early instead of growing
+        byte[] framed = new byte[bytes.length];
+        int written = compressor.compress(bytes, framed, HEADER_LENGTH);
+        long cpuNanos = cpuTime() - start;
+        if (written < 0) {
+            if (metrics != null) {
+                metrics.recordCompressionSkipped();
+            }
+            return bytes;
+        }
+        framed[0] = MAGIC;
+        framed[1] = (byte) compressor.id;
+        framed[2] = (byte) (bytes.length >>> 24);
+        framed[3] = (byte) (bytes.length >>> 16);
+        framed[4] = (byte) (bytes.length >>> 8);
+        framed[5] = (byte) bytes.length;
+        int length = HEADER_LENGTH + written;
+        if (metrics != null) {
+            metrics.recordCompression(bytes.length, length, cpuNanos);
+        }
+        return Arrays.copyOf(framed, length);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < HEADER_LENGTH || bytes[0] != MAGIC) {
+            return delegate.deserialize(bytes);
+        }
+        int id = bytes[1];
+        Compressor decompressor = id > 0 && id < decompressors.length ? decompressors[id] : null;
+        if (decompressor == null) {
+            throw new SerializationException("Cannot decompress value with algorithm id " + id
+                    + (id == ZSTD ? ", add com.github.luben:zstd-jni to the classpath" : ""));
+        }
+        int originalLength = ((bytes[2] & 0xFF) << 24) | ((bytes[3] & 0xFF) << 16) | ((bytes[4] & 0xFF) << 8) | (bytes[5] & 0xFF);
+        if (originalLength < 0) {
+            throw new SerializationException("Invalid original length " + originalLength);
+        }
+        // A corrupt or hostile header must not make the reader allocate an arbitrary amount of memory
+        if (originalLength > maxDecompressedBytes) {
+            throw new SerializationException("Original length " + originalLength
+                    + " exceeds the maximum decompressed size of " + maxDecompressedBytes + " bytes");
+        }
+        long start = cpuTime();
+        byte[] original = new byte[originalLength];
+        decompressor.decompress(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, original);
+        if (metrics != null) {
+            metrics.recordDecompression(cpuTime() - start);
+        }
+        return delegate.deserialize(original);
+    }
+
+    private Compressor compressor(String algorithm) {
+        if ("deflate".equalsIgnoreCase(algorithm)) {
+            return decompressors[DEFLATE];
+        }
+        if ("zstd".equalsIgnoreCase(algorithm)) {
+            if (!ZSTD_PRESENT) {
+                throw new IllegalStateException("Compression algorithm zstd needs com.github.luben:zstd-jni on the classpath");
+            }
+            return decompressors[ZSTD];
+        }
+        throw new IllegalArgumentException("Unknown compression algorithm " + algorithm + ", expected zstd or deflate");
+    }
+
+    // Thread CPU time excludes time spent descheduled; wall time is used where the JVM does not support it
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private abstract static class Compressor {
+        private final int id;
+
+        private Compressor(int id) {
+            this.id = id;
+        }
+
+        /**
+         * Compresses {@code source} into {@code target} from {@code offset} on and returns the bytes written, or
+         * -1 when the result would not fit.
+         */
+        abstract int compress(byte[] source, byte[] target, int offset);
+
+        abstract void decompress(byte[] source, int offset, int length, byte[] target);
+    }
+
+    private static final class DeflateCompressor extends Compressor {
+        // Deflater and Inflater hold native memory, so they are reused per thread instead of allocated per value
+        private final ThreadLocal<Deflater> deflaters;
+        private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+
+        private DeflateCompressor(int level) {
+            super(DEFLATE);
+            this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level, true));
+        }
+
+        @Override
+        int compress(byte[] source, byte[] target, int offset) {
+            Deflater deflater = deflaters.get();
+            try {
+                deflater.setInput(source);
+                deflater.finish();
+                int position = offset;
+                while (!deflater.finished() && position < target.length) {
+                    position += deflater.deflate(target, position, target.length - position);
+                }
+                return deflater.finished() ? position - offset : -1;
+            } finally {
+                deflater.reset();
+            }
+        }
+
+        @Override
+        void decompress(byte[] source, int offset, int length, byte[] target) {
+            Inflater inflater = inflaters.get();
+            try {
+                inflater.setInput(source, offset, length);
+                int position = 0;
+                while (position < target.length) {
+                    int inflated = inflater.inflate(target, position, target.length - position);
+                    if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                        break;
+                    }
+                    position += inflated;
+                }
+                if (position != target.length) {
+                    throw new SerializationException("Truncated deflate value, expected " + target.length + " bytes but got " + position);
+                }
+            } catch (DataFormatException e) {
+                throw new SerializationException("Corrupt deflate value", e);
+            } finally {
+                inflater.reset();
+            }
+        }
+    }
+
+    private static final class ZstdCompressor extends Compressor {
+        private final int level;
+
+        private ZstdCompressor(int level) {
+            super(ZSTD);
+            this.level = level;
+        }
+
+        @Override
+        int compress(byte[] source, byte[] target, int offset) {
+            try {
+                return (int) Zstd.compressByteArray(target, offset, target.length - offset, source, 0, source.length, level);
+            } catch (ZstdException e) {
+                // Destination too small: the value does not shrink enough to be worth storing compressed
+                return -1;
+            }
+        }
+
+        @Override
+        void decompress(byte[] source, int offset, int length, byte[] target) {
+            long read;
+            try {
+                read = Zstd.decompressByteArray(target, 0, target.length, source, offset, length);
+            } catch (ZstdException e) {
+                throw new SerializationException("Corrupt zstd value", e);
+            }
+            if (read != target.length) {
+                throw new SerializationException("Truncated zstd value, expected " + target.length + " bytes but got " + read);
+            }
+        }
+    }
+}
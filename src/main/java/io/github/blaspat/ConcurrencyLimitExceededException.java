@@ -0,0 +1,32 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+
+/**
+ * Thrown when a write is rejected because the adaptive concurrency limit was reached. Reads are served from their
+ * fallback instead; a rejected write has none, so it fails like any other write error.
+ */
+public class ConcurrencyLimitExceededException extends TransientDataAccessResourceException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ConcurrencyLimitExceededException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens and validates Redis connections before the first request needs them. On {@link ApplicationReadyEvent} it
+ * PINGs over the shared connection, borrows {@code connections} pooled connections at once and PINGs each (plus a
+ * read, which the read routing sends to a replica), returns them to the pool idle, then runs the warm-up reads.
+ * Spring Boot reports readiness only after every {@code ApplicationReadyEvent} listener has returned, so the
+ * instance takes traffic once this is done. Failures are logged and the application starts cold.
+ */
+public class ConnectionWarmer implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final byte[] PROBE_KEY = "resilient-redis:warm-up".getBytes(StandardCharsets.UTF_8);
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final RedisConnectionFactory connectionFactory;
+    private final int connections;
+    private final ResilientRedisTemplate<String, ?> template;
+    private final Collection<String> keys;
+    private final Duration timeout;
+
+    public ConnectionWarmer(
+            RedisConnectionFactory connectionFactory,
+            int connections,
+            ResilientRedisTemplate<String, ?> template,
+            Collection<String> keys,
+            Duration timeout) {
+        this.connectionFactory = connectionFactory;
+        this.connections = connections;
+        this.template = template;
+        this.keys = keys;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        warmUp();
+    }
+
+    /**
+     * @return whether every connection answered and every warm-up read ran
+     */
+    public boolean warmUp() {
+        long start = System.nanoTime();
+        try {
+            int found = RedisDeadline.call(timeout, () -> {
+                openConnections();
+                return readKeys();
+            });
+            logger.info("Redis warm-up opened {} pooled connections and found {} of {} warm-up keys in {} ms",
+                    connections, found, keys.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("Redis warm-up failed after {} ms, starting cold: {}",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e.getMessage());
+            return false;
+        }
+    }
+
+    private void openConnections() {
+        try (RedisConnection shared = connectionFactory.getConnection()) {
+            validate(shared.ping());
+            shared.keyCommands().exists(PROBE_KEY);
+        }
+        // Held together so the pool has to open that many, then returned to it idle
+        List<RedisConnection> opened = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                RedisConnection connection = connectionFactory.getConnection();
+                opened.add(connection);
+                // Pipelines run on a dedicated connection, which is what gets borrowed from the pool
+                connection.openPipeline();
+                connection.ping();
+                connection.keyCommands().exists(PROBE_KEY);
+            }
+            for (RedisConnection connection : opened) {
+                List<Object> replies = connection.closePipeline();
+                validate(replies.isEmpty() ? null : replies.get(0));
+            }
+        } finally {
+            for (RedisConnection connection : opened) {
+                connection.close();
+            }
+        }
+    }
+
+    private int readKeys() {
+        if (template == null || keys.isEmpty()) {
+            return 0;
+        }
+        Map<String, ?> values = template.multiGet(keys);
+        int found = 0;
+        for (Object value : values.values()) {
+            if (value != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static void validate(Object pong) {
+        if (!"PONG".equals(pong)) {
+            throw new IllegalStateException("Unexpected PING reply: " + pong);
+        }
+    }
+}
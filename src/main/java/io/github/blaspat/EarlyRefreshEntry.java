@@ -0,0 +1,65 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import java.io.Serializable;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Value stored together with its recompute cost and expiry, as needed by probabilistic early expiration (XFetch).
+ * The cost is kept in microseconds, so loaders faster than a millisecond still refresh early.
+ */
+public class EarlyRefreshEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object value;
+    private final long computeMicros;
+    private final long expiresAtMillis;
+
+    public EarlyRefreshEntry(Object value, long computeMicros, long expiresAtMillis) {
+        this.value = value;
+        this.computeMicros = computeMicros;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public long getComputeMicros() {
+        return computeMicros;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    // now - delta * beta * ln(rand) >= expiry; ln(rand) is negative, so expensive entries refresh earlier
+    public boolean shouldRefresh(double beta) {
+        if (computeMicros <= 0) {
+            return false;
+        }
+        double random = 1d - ThreadLocalRandom.current().nextDouble();
+        double gap = -computeMicros / 1000d * beta * Math.log(random);
+        return System.currentTimeMillis() + gap >= expiresAtMillis;
+    }
+
+    public static Object unwrap(Object value) {
+        return value instanceof EarlyRefreshEntry ? ((EarlyRefreshEntry) value).getValue() : value;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs XFetch early refreshes in the background, at most one per key at a time. When the queue is full the
+ * refresh is dropped; the entry is still recomputed on its hard expiry.
+ */
+public class EarlyRefresher {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final double beta;
+    private final ThreadPoolExecutor executor;
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+    private final ResilientRedisMetrics metrics;
+
+    public EarlyRefresher(double beta, int threads, int queueCapacity, ResilientRedisMetrics metrics) {
+        this.beta = beta;
+        this.metrics = metrics;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "redis-early-refresh-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public boolean shouldRefresh(EarlyRefreshEntry entry) {
+        return entry.shouldRefresh(beta);
+    }
+
+    public void refresh(Object key, Runnable refresh) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh.run();
+                } catch (Exception e) {
+                    logger.warn("Redis early refresh failed for key '{}': {}", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+            recordRefresh("scheduled");
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            recordRefresh("rejected");
+        }
+    }
+
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void recordRefresh(String outcome) {
+        if (metrics != null) {
+            metrics.recordEarlyRefresh(outcome);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Collects concurrent single-key reads into one multi-key load. The first waiting caller becomes the leader: it
+ * waits up to {@code window} or until {@code maxBatchSize} reads are queued, hands leadership on and runs the load on
+ * its own thread, so several batches can be in flight at once. A lone read while no batch is in flight is sent
+ * without waiting, so batching only adds latency when there is concurrency to exploit.
+ */
+public class GetBatcher<K, V> {
+
+    private final ConcurrentLinkedQueue<Request<K, V>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger executing = new AtomicInteger();
+    private final AtomicBoolean leading = new AtomicBoolean();
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final Function<List<K>, Map<K, V>> loader;
+    private final ResilientRedisMetrics metrics;
+    private volatile Thread leader;
+
+    public GetBatcher(int maxBatchSize, Duration window, Function<List<K>, Map<K, V>> loader, ResilientRedisMetrics metrics) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.windowNanos = window.toNanos();
+        this.loader = loader;
+        this.metrics = metrics;
+        if (metrics != null) {
+            metrics.registerGetBatcher();
+        }
+    }
+
+    public V get(K key) {
+        Request<K, V> request = new Request<>(key, Thread.currentThread());
+        // Counted before it is visible, so a draining leader never takes the count below zero
+        int pending = queued.incrementAndGet();
+        queue.add(request);
+        if (pending >= maxBatchSize) {
+            Thread current = leader;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+        // parkNanos returns at once while the interrupt flag is set, so the flag is cleared for the wait and restored
+        // once the read completes; this also keeps one interrupted caller from failing the load for the whole batch
+        boolean interrupted = Thread.interrupted();
+        while (!request.done) {
+            if (leading.compareAndSet(false, true)) {
+                interrupted |= lead(request);
+            } else {
+                // Timed, so a follower also notices when leadership frees up without being woken
+                LockSupport.parkNanos(this, Math.max(windowNanos, 10_000L));
+                interrupted |= Thread.interrupted();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        Throwable error = request.error;
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        if (error != null) {
+            throw new UndeclaredThrowableException(error);
+        }
+        return request.value;
+    }
+
+    // Returns whether the thread was interrupted while collecting the batch
+    private boolean lead(Request<K, V> own) {
+        long start = System.nanoTime();
+        boolean interrupted = false;
+        List<Request<K, V>> batch;
+        try {
+            leader = Thread.currentThread();
+            if (queued.get() > 1 || executing.get() > 0) {
+                long deadline = start + windowNanos;
+                long remaining;
+                while (!own.done && queued.get() < maxBatchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(this, remaining);
+                    interrupted |= Thread.interrupted();
+                }
+            }
+            batch = drain();
+            if (!batch.isEmpty()) {
+                // Counted before leadership is released, so the next leader knows a batch is in flight
+                executing.incrementAndGet();
+            }
+        } finally {
+            leader = null;
+            leading.set(false);
+        }
+        // Let a queued caller take over collecting while this batch is in flight
+        Request<K, V> next = queue.peek();
+        if (next != null) {
+            LockSupport.unpark(next.thread);
+        }
+        if (!batch.isEmpty()) {
+            execute(batch, System.nanoTime() - start);
+        }
+        return interrupted;
+    }
+
+    private List<Request<K, V>> drain() {
+        List<Request<K, V>> batch = new ArrayList<>(Math.max(1, Math.min(queued.get(), maxBatchSize)));
+        Request<K, V> request;
+        while (batch.size() < maxBatchSize && (request = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(request);
+        }
+        return batch;
+    }
+
+    private void execute(List<Request<K, V>> batch, long waitNanos) {
+        try {
+            List<K> keys = new ArrayList<>(batch.size());
+            for (Request<K, V> request : batch) {
+                keys.add(request.key);
+            }
+            Map<K, V> values = loader.apply(keys);
+            if (values != null) {
+                for (Request<K, V> request : batch) {
+                    request.value = values.get(request.key);
+                }
+            }
+        } catch (Throwable e) {
+            // Errors are handed to the waiters too, so none of them reads a failed load as a miss
+            for (Request<K, V> request : batch) {
+                request.error = e;
+            }
+        } finally {
+            executing.decrementAndGet();
+            for (Request<K, V> request : batch) {
+                request.done = true;
+                LockSupport.unpark(request.thread);
+            }
+            if (metrics != null) {
+                metrics.recordGetBatch(batch.size(), waitNanos);
+            }
+        }
+    }
+
+    private static final class Request<K, V> {
+        private final K key;
+        private final Thread thread;
+        private V value;
+        private Throwable error;
+        private volatile boolean done;
+
+        private Request(K key, Thread thread) {
+            this.key = key;
+            this.thread = thread;
+        }
+    }
+}
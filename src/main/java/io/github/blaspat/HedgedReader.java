@@ -0,0 +1,215 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.blaspat;
+
+import io.lettuce.core.RedisCommandInterruptedException;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Reads from the replica and, if it has not answered within its recently observed latency percentile, sends the same
+ * read to the master and returns whichever answers first. Hedges are capped to a share of reads with a
+ * {@link RetryBudget}, so a general outage does not double the load.
+ */
+public class HedgedReader<K, V> implements AutoCloseable {
+
+    private final ReactiveRedisTemplate<K, V> replica;
+    private final ReactiveRedisTemplate<K, V> master;
+    private final LatencyPercentile replicaLatency;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final RetryBudget hedgeBudget;
+    private final ResilientRedisMetrics metrics;
+    private final Runnable onClose;
+
+    public HedgedReader(
+            ReactiveRedisTemplate<K, V> replica,
+            ReactiveRedisTemplate<K, V> master,
+            double percentile,
+            Duration minDelay,
+            Duration maxDelay,
+            double maxHedgeRatio,
+            ResilientRedisMetrics metrics,
+            Runnable onClose) {
+        this.replica = replica;
+        this.master = master;
+        this.replicaLatency = new LatencyPercentile(percentile);
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        // Budget semantics fit hedging as well: every read deposits maxHedgeRatio tokens, every hedge spends one
+        this.hedgeBudget = new RetryBudget(maxHedgeRatio, 1, Duration.ofSeconds(10), null);
+        this.metrics = metrics;
+        this.onClose = onClose;
+    }
+
+    public V get(K key) {
+        return read(() -> replica.opsForValue().get(key).toFuture(), () -> master.opsForValue().get(key).toFuture());
+    }
+
+    public List<V> multiGet(List<K> keys) {
+        return read(() -> replica.opsForValue().multiGet(keys).toFuture(), () -> master.opsForValue().multiGet(keys).toFuture());
+    }
+
+    public long hedgeDelayNanos() {
+        long observed = replicaLatency.get();
+        if (observed == 0) {
+            return maxDelayNanos;
+        }
+        return Math.max(minDelayNanos, Math.min(maxDelayNanos, observed));
+    }
+
+    private <T> T read(Supplier<CompletableFuture<T>> primaryRead, Supplier<CompletableFuture<T>> hedgeRead) {
+        hedgeBudget.recordAttempt();
+        long start = System.nanoTime();
+        CompletableFuture<T> primary = primaryRead.get();
+        primary.whenComplete((result, throwable) -> {
+            if (throwable == null) {
+                replicaLatency.record(System.nanoTime() - start);
+            }
+        });
+        try {
+            return primary.get(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Replica is slower than usual, fall through to hedge
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RedisCommandInterruptedException(e);
+        } catch (ExecutionException e) {
+            throw rethrow(e);
+        }
+        if (!hedgeBudget.tryAcquireRetry()) {
+            recordHedge("rejected");
+            return await(primary);
+        }
+        recordHedge("sent");
+        CompletableFuture<T> hedge = hedgeRead.get();
+        T result = await(firstSuccessful(primary, hedge));
+        if (!isSuccessful(primary)) {
+            recordHedge("won");
+        }
+        return result;
+    }
+
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> primary, CompletableFuture<T> hedge) {
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        BiConsumer<T, Throwable> onComplete = (result, throwable) -> {
+            if (throwable == null) {
+                first.complete(result);
+            } else if (failures.incrementAndGet() == 2) {
+                first.completeExceptionally(throwable);
+            }
+        };
+        // Cancelling a future from Mono.toFuture() cancels its subscription, so the losing read stops waiting on Redis
+        primary.whenComplete(onComplete.andThen((result, throwable) -> {
+            if (throwable == null) {
+                hedge.cancel(false);
+            }
+        }));
+        hedge.whenComplete(onComplete.andThen((result, throwable) -> {
+            if (throwable == null) {
+                primary.cancel(false);
+            }
+        }));
+        return first;
+    }
+
+    private static boolean isSuccessful(CompletableFuture<?> future) {
+        return future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RedisCommandInterruptedException(e);
+        } catch (ExecutionException e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static RuntimeException rethrow(ExecutionException e) {
+        Throwable cause = RedisErrorClassifier.unwrap(e);
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private void recordHedge(String outcome) {
+        if (metrics != null) {
+            metrics.recordHedge(outcome);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (onClose != null) {
+            onClose.run();
+        }
+    }
+
+    /**
+     * Percentile over the last {@value #SAMPLES} latencies, recomputed every {@value #RECOMPUTE_EVERY} samples.
+     */
+    private static final class LatencyPercentile {
+        private static final int SAMPLES = 512;
+        private static final int RECOMPUTE_EVERY = 64;
+
+        private final double percentile;
+        private final AtomicLongArray samples = new AtomicLongArray(SAMPLES);
+        private final AtomicLong count = new AtomicLong();
+        private volatile long value;
+
+        private LatencyPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        private void record(long nanos) {
+            long n = count.getAndIncrement();
+            samples.set((int) (n % SAMPLES), nanos);
+            if ((n + 1) % RECOMPUTE_EVERY == 0) {
+                int size = (int) Math.min(n + 1, SAMPLES);
+                long[] sorted = new long[size];
+                for (int i = 0; i < size; i++) {
+                    sorted[i] = samples.get(i);
+                }
+                Arrays.sort(sorted);
+                value = sorted[Math.min(size - 1, (int) Math.ceil(percentile * size) - 1)];
+            }
+        }
+
+        private long get() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Finds the most frequently accessed keys in fixed memory. One in {@code sampleRate} accesses is counted in a
+ * Count-Min Sketch; keys whose estimate beats the smallest tracked candidate are kept as top-K candidates, which a
+ * caller that wins a CAS trims back with a min-heap, so recording never blocks. Once per window the top keys and their
+ * estimated rates are published and the sketch starts over. A key is hot once its estimated rate reaches
+ * {@code hotRate}, either within the current window or over the previous one. Keys are hashed by their string form.
+ */
+public class HotKeyDetector {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L
+    };
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final int sampleRate;
+    private final int depth;
+    private final int widthBits;
+    private final int topK;
+    private final long windowNanos;
+    private final double hotRate;
+    private final ResilientRedisMetrics metrics;
+    private final AtomicLongArray sketch;
+    private final Map<Object, Long> candidates = new ConcurrentHashMap<>();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private volatile long admissionCount;
+    private final long hotCount;
+    private volatile Set<Object> hot = ConcurrentHashMap.newKeySet();
+    private volatile List<HotKey> top = Collections.emptyList();
+
+    /**
+     * @param width counters per sketch row, rounded up to a power of two
+     * @param hotRate estimated accesses per second from which a key counts as hot
+     */
+    public HotKeyDetector(
+            int sampleRate,
+            int width,
+            int depth,
+            int topK,
+            Duration window,
+            double hotRate,
+            ResilientRedisMetrics metrics) {
+        this.sampleRate = Math.max(1, sampleRate);
+        this.depth = Math.max(1, Math.min(SEEDS.length, depth));
+        this.widthBits = 32 - Integer.numberOfLeadingZeros(Math.max(2, width) - 1);
+        this.topK = Math.max(1, topK);
+        this.windowNanos = window.toNanos();
+        this.hotRate = hotRate;
+        this.metrics = metrics;
+        this.sketch = new AtomicLongArray(this.depth << widthBits);
+        this.hotCount = hotCountPerWindow();
+        if (metrics != null) {
+            metrics.registerHotKeys();
+        }
+    }
+
+    /**
+     * Counts a sampled share of accesses to {@code key}.
+     */
+    public void record(Object key) {
+        if (sample()) {
+            add(key);
+        }
+    }
+
+    public boolean sample() {
+        return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    /**
+     * Counts one sampled access; callers that build the key only for sampled accesses use {@link #sample()} first.
+     */
+    public void add(Object key) {
+        maybeRotate();
+        long hash = hash64(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, sketch.incrementAndGet((row << widthBits) + index(hash, row)));
+        }
+        if (estimate >= hotCount && hot.add(key)) {
+            logger.warn("Hot Redis key detected: '{}' above {} accesses/s", key, Math.round(hotRate));
+            if (metrics != null) {
+                metrics.recordHotKeyDetected();
+            }
+        }
+        if (estimate > admissionCount || candidates.size() < topK) {
+            candidates.put(key, estimate);
+            if (candidates.size() > 2 * topK && trimming.compareAndSet(false, true)) {
+                try {
+                    trim();
+                } finally {
+                    trimming.set(false);
+                }
+            }
+        }
+    }
+
+    public boolean isHot(Object key) {
+        return hot.contains(key);
+    }
+
+    /**
+     * Most accessed keys of the last completed window, highest rate first.
+     */
+    public List<HotKey> topKeys() {
+        maybeRotate();
+        return top;
+    }
+
+    private int index(long hash, int row) {
+        return (int) (mix64(hash ^ SEEDS[row]) >>> (64 - widthBits));
+    }
+
+    // 64-bit FNV-1a over the key's characters rather than its 32-bit hashCode, so keys with colliding hash codes
+    // ("Aa" and "BB") do not share a counter in every row
+    private static long hash64(Object key) {
+        CharSequence chars = key instanceof CharSequence ? (CharSequence) key : key.toString();
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < chars.length(); i++) {
+            hash = (hash ^ chars.charAt(i)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    // MurmurHash3 finalizer, re-hashes the key hash with each row's seed
+    private static long mix64(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    private long hotCountPerWindow() {
+        return Math.max(1L, (long) Math.ceil(hotRate * windowNanos / 1e9 / sampleRate));
+    }
+
+    private List<Map.Entry<Object, Long>> largest(int limit) {
+        PriorityQueue<Map.Entry<Object, Long>> heap = new PriorityQueue<>(limit + 1, Map.Entry.comparingByValue());
+        for (Map.Entry<Object, Long> entry : candidates.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<Object, Long>> largest = new ArrayList<>(heap);
+        largest.sort(Collections.reverseOrder(Map.Entry.comparingByValue()));
+        return largest;
+    }
+
+    private void trim() {
+        List<Map.Entry<Object, Long>> keep = largest(topK);
+        if (keep.size() < topK) {
+            return;
+        }
+        long smallest = keep.get(keep.size() - 1).getValue();
+        admissionCount = smallest;
+        candidates.values().removeIf(estimate -> estimate < smallest);
+    }
+
+    private void maybeRotate() {
+        long start = windowStart.get();
+        long now = System.nanoTime();
+        if (now - start < windowNanos || !windowStart.compareAndSet(start, now)) {
+            return;
+        }
+        double seconds = (now - start) / 1e9;
+        List<HotKey> published = new ArrayList<>(topK);
+        Set<Object> stillHot = ConcurrentHashMap.newKeySet();
+        for (Map.Entry<Object, Long> entry : largest(topK)) {
+            double rate = entry.getValue() * (double) sampleRate / seconds;
+            published.add(new HotKey(entry.getKey(), rate));
+            if (rate >= hotRate) {
+                stillHot.add(entry.getKey());
+            }
+        }
+        candidates.clear();
+        admissionCount = 0L;
+        for (int i = 0; i < sketch.length(); i++) {
+            sketch.set(i, 0L);
+        }
+        hot = stillHot;
+        top = Collections.unmodifiableList(published);
+        if (metrics != null) {
+            metrics.recordHotKeys(top);
+        }
+    }
+
+    public static final class HotKey {
+        private final Object key;
+        private final double rate;
+
+        private HotKey(Object key, double rate) {
+            this.key = key;
+            this.rate = rate;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Estimated accesses per second, including the ones that were not sampled.
+         */
+        public double getRate() {
+            return rate;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + Math.round(rate) + "/s";
+        }
+    }
+}
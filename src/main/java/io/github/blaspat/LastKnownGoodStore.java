@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Memory-capped copy of recently read values, served while Redis is unreachable. Entries older than
+ * {@code maxStaleness} are never served. Weights are estimates; values that are not strings, byte arrays or
+ * collections are charged a flat {@code defaultEntryBytes}.
+ */
+public class LastKnownGoodStore {
+
+    private final Cache<Object, Entry> store;
+    private final long maxStalenessMillis;
+    private final int defaultEntryBytes;
+    private final ResilientRedisMetrics metrics;
+
+    public LastKnownGoodStore(long maxBytes, Duration maxStaleness, int defaultEntryBytes, ResilientRedisMetrics metrics) {
+        this.maxStalenessMillis = maxStaleness.toMillis();
+        this.defaultEntryBytes = defaultEntryBytes;
+        this.metrics = metrics;
+        this.store = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Object key, Entry entry) -> entry.weight)
+                .expireAfterWrite(maxStaleness)
+                .build();
+    }
+
+    public void record(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        store.put(key, new Entry(value, System.currentTimeMillis(), estimateBytes(key) + estimateBytes(value)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getStale(Object key, RedisOperation operation) {
+        Entry entry = store.getIfPresent(key);
+        if (entry == null || System.currentTimeMillis() - entry.fetchedAt > maxStalenessMillis) {
+            return null;
+        }
+        if (metrics != null) {
+            metrics.recordStaleServe(operation);
+        }
+        return (T) entry.value;
+    }
+
+    public void remove(Object key) {
+        store.invalidate(key);
+    }
+
+    public void removeIf(Predicate<Object> keyPredicate) {
+        store.asMap().keySet().removeIf(keyPredicate);
+    }
+
+    public void clear() {
+        store.invalidateAll();
+    }
+
+    private int estimateBytes(Object value) {
+        if (value instanceof CharSequence) {
+            return 40 + 2 * ((CharSequence) value).length();
+        }
+        if (value instanceof byte[]) {
+            return 16 + ((byte[]) value).length;
+        }
+        if (value instanceof Collection) {
+            return 16 + ((Collection<?>) value).size() * defaultEntryBytes;
+        }
+        if (value instanceof Map) {
+            return 48 + ((Map<?, ?>) value).size() * defaultEntryBytes;
+        }
+        return defaultEntryBytes;
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long fetchedAt;
+        private final int weight;
+
+        private Entry(Object value, long fetchedAt, int weight) {
+            this.value = value;
+            this.fetchedAt = fetchedAt;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.blaspat;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.metrics.CommandLatencyRecorder;
+import io.lettuce.core.models.role.RedisNodeDescription;
+import io.lettuce.core.protocol.ProtocolKeyword;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import io.micrometer.core.instrument.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes reads to the healthy replica with the lowest latency. Latency is an EWMA per node fed by Lettuce's command
+ * latency recorder and by a periodic PING, which also ejects replicas after consecutive failures and restores them
+ * after consecutive successes. Reads go to the master only when no replica is usable.
+ */
+public class LatencyAwareReadFrom extends ReadFrom implements CommandLatencyRecorder, AutoCloseable {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final Map<String, NodeState> nodes = new LinkedHashMap<>();
+    private final Map<String, NodeState> nodesByAddress = new ConcurrentHashMap<>();
+    private final double ewmaAlpha;
+    private final int ejectAfterFailures;
+    private final int recoverAfterSuccesses;
+    private final Duration probeTimeout;
+    private final ClientResources clientResources;
+    private final RedisClient probeClient;
+    private final ScheduledExecutorService probeScheduler;
+
+    public LatencyAwareReadFrom(
+            List<RedisURI> replicas,
+            double ewmaAlpha,
+            int ejectAfterFailures,
+            int recoverAfterSuccesses,
+            Duration probeInterval,
+            Duration probeTimeout,
+            ResilientRedisMetrics metrics) {
+        this.ewmaAlpha = ewmaAlpha;
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.recoverAfterSuccesses = recoverAfterSuccesses;
+        this.probeTimeout = probeTimeout;
+        for (RedisURI uri : replicas) {
+            // The URI timeout bounds the probe's connect as well as its PING, instead of the 60 s default
+            NodeState state = new NodeState(RedisURI.builder(uri).withTimeout(probeTimeout).build());
+            nodes.put(key(uri.getHost(), uri.getPort()), state);
+            nodesByAddress.put(key(uri.getHost(), uri.getPort()), state);
+            try {
+                nodesByAddress.put(key(InetAddress.getByName(uri.getHost()).getHostAddress(), uri.getPort()), state);
+            } catch (UnknownHostException e) {
+                logger.warn("Cannot resolve replica {}, latency is measured by probes only", uri.getHost());
+            }
+            if (metrics != null) {
+                state.selections = metrics.registerReplicaNode(state.name, state, s -> s.ewmaNanos / 1_000_000d, s -> s.healthy ? 1 : 0);
+            }
+        }
+        this.clientResources = DefaultClientResources.builder().commandLatencyRecorder(this).build();
+        this.probeClient = RedisClient.create();
+        this.probeClient.setOptions(ClientOptions.builder()
+                .socketOptions(SocketOptions.builder().connectTimeout(probeTimeout).build())
+                .build());
+        this.probeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "redis-replica-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.probeScheduler.scheduleWithFixedDelay(this::probe, 0, probeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Client resources that report command latencies to this router; connection factories must use them.
+     */
+    public ClientResources getClientResources() {
+        return clientResources;
+    }
+
+    @Override
+    public List<RedisNodeDescription> select(Nodes candidates) {
+        List<RedisNodeDescription> selected = new ArrayList<>();
+        RedisNodeDescription upstream = null;
+        for (RedisNodeDescription node : candidates) {
+            if (node.getRole().isReplica()) {
+                NodeState state = nodes.get(key(node.getUri().getHost(), node.getUri().getPort()));
+                if (state == null || state.healthy) {
+                    selected.add(node);
+                }
+            } else if (upstream == null) {
+                upstream = node;
+            }
+        }
+        if (selected.size() > 1) {
+            selected.sort(Comparator.comparingDouble(this::latency));
+        }
+        if (!selected.isEmpty()) {
+            NodeState first = nodes.get(key(selected.get(0).getUri().getHost(), selected.get(0).getUri().getPort()));
+            if (first != null && first.selections != null) {
+                first.selections.increment();
+            }
+        }
+        if (upstream != null) {
+            selected.add(upstream);
+        }
+        return selected;
+    }
+
+    @Override
+    protected boolean isOrderSensitive() {
+        return true;
+    }
+
+    @Override
+    public void recordCommandLatency(SocketAddress local, SocketAddress remote, ProtocolKeyword commandType,
+                                     long firstResponseLatency, long completionLatency) {
+        if (!(remote instanceof InetSocketAddress)) {
+            return;
+        }
+        InetSocketAddress address = (InetSocketAddress) remote;
+        NodeState state = nodesByAddress.get(key(address.getHostString(), address.getPort()));
+        if (state == null && address.getAddress() != null) {
+            state = nodesByAddress.get(key(address.getAddress().getHostAddress(), address.getPort()));
+        }
+        if (state != null) {
+            state.record(firstResponseLatency, ewmaAlpha);
+        }
+    }
+
+    private double latency(RedisNodeDescription node) {
+        NodeState state = nodes.get(key(node.getUri().getHost(), node.getUri().getPort()));
+        return state != null ? state.ewmaNanos : Double.MAX_VALUE;
+    }
+
+    private void probe() {
+        for (NodeState state : nodes.values()) {
+            try {
+                if (state.connection == null || !state.connection.isOpen()) {
+                    state.connection = probeClient.connect(state.uri);
+                }
+                long start = System.nanoTime();
+                state.connection.sync().ping();
+                state.record(System.nanoTime() - start, ewmaAlpha);
+                onProbeSuccess(state);
+            } catch (RuntimeException e) {
+                onProbeFailure(state, e);
+            }
+        }
+    }
+
+    private void onProbeSuccess(NodeState state) {
+        state.consecutiveFailures = 0;
+        if (!state.healthy && ++state.consecutiveSuccesses >= recoverAfterSuccesses) {
+            state.healthy = true;
+            logger.info("Redis replica {} recovered, routing reads to it again", state.name);
+        }
+    }
+
+    private void onProbeFailure(NodeState state, RuntimeException e) {
+        state.consecutiveSuccesses = 0;
+        if (state.healthy && ++state.consecutiveFailures >= ejectAfterFailures) {
+            state.healthy = false;
+            logger.warn("Redis replica {} ejected after {} failed probes: {}", state.name, state.consecutiveFailures, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        probeScheduler.shutdownNow();
+        for (NodeState state : nodes.values()) {
+            if (state.connection != null) {
+                state.connection.closeAsync();
+            }
+        }
+        probeClient.shutdown();
+        clientResources.shutdown();
+    }
+
+    private static String key(String host, int port) {
+        return host + ":" + port;
+    }
+
+    private static final class NodeState {
+        private final RedisURI uri;
+        private final String name;
+        // Updated without locking; an occasionally lost sample does not matter for routing
+        private volatile double ewmaNanos;
+        private volatile boolean healthy = true;
+        private int consecutiveFailures;
+        private int consecutiveSuccesses;
+        private StatefulRedisConnection<String, String> connection;
+        private Counter selections;
+
+        private NodeState(RedisURI uri) {
+            this.uri = uri;
+            this.name = key(uri.getHost(), uri.getPort());
+        }
+
+        private void record(long nanos, double alpha) {
+            double current = ewmaNanos;
+            ewmaNanos = current == 0 ? nanos : current + alpha * (nanos - current);
+        }
+    }
+}
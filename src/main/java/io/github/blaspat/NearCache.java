@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded in-process L1 tier in front of Redis. Eviction and admission are handled by Caffeine (W-TinyLFU),
+ * staleness is bounded by {@code expireAfterWrite} and by invalidations pushed from {@link NearCacheInvalidator}.
+ */
+public class NearCache<K, V> {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<K, V> cache;
+    private final ResilientRedisMetrics metrics;
+    // Bumped on every invalidation so a Redis read that raced with an invalidation is not cached
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private volatile boolean bypassed;
+
+    public NearCache(long maximumSize, Duration expireAfterWrite, ResilientRedisMetrics metrics) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        this.metrics = metrics;
+    }
+
+    public V get(K key) {
+        if (bypassed) {
+            return null;
+        }
+        V value = cache.getIfPresent(key);
+        if (metrics != null) {
+            if (value != null) {
+                metrics.recordNearCacheHit(RedisOperation.GET);
+            } else {
+                metrics.recordNearCacheMiss(RedisOperation.GET);
+            }
+        }
+        return value;
+    }
+
+    public long generation(K key) {
+        return generations.get(stripe(key));
+    }
+
+    public void putIfUnchanged(K key, V value, long generation) {
+        if (value == null || bypassed) {
+            return;
+        }
+        cache.put(key, value);
+        // An invalidation may have landed between the Redis read and the put above
+        if (generations.get(stripe(key)) != generation) {
+            cache.invalidate(key);
+        }
+    }
+
+    public void skipNextPut(K key) {
+        generations.incrementAndGet(stripe(key));
+    }
+
+    public void invalidate(K key, String source) {
+        generations.incrementAndGet(stripe(key));
+        cache.invalidate(key);
+        if (metrics != null) {
+            metrics.recordNearCacheInvalidation(source);
+        }
+    }
+
+    /**
+     * Drops what a read racing with a just-completed write may have cached for the key. Paired with an
+     * {@link #invalidate} before the write, so it is not counted as another invalidation.
+     */
+    public void invalidateAfterWrite(K key) {
+        generations.incrementAndGet(stripe(key));
+        cache.invalidate(key);
+    }
+
+    public void invalidateAll(String source) {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+        if (metrics != null) {
+            metrics.recordNearCacheInvalidation(source);
+        }
+    }
+
+    /**
+     * While bypassed, reads miss and nothing is cached, for when invalidations may not be delivered.
+     */
+    public void setBypassed(boolean bypassed) {
+        this.bypassed = bypassed;
+    }
+
+    public boolean isBypassed() {
+        return bypassed;
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private int stripe(K key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+}
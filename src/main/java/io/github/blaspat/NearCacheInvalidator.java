@@ -0,0 +1,152 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushListener;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.ByteArrayCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.net.SocketAddress;
+import java.util.List;
+
+/**
+ * Keeps a {@link NearCache} coherent using Redis 6 server-assisted client side caching. A dedicated RESP3
+ * connection subscribes with {@code CLIENT TRACKING ON BCAST}, so writes from any node invalidate the local tier.
+ */
+public class NearCacheInvalidator<K> implements PushListener, RedisConnectionStateListener {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final RedisClient redisClient;
+    private final RedisURI redisURI;
+    private final NearCache<K, ?> nearCache;
+    private final RedisSerializer<K> keySerializer;
+    private final String[] prefixes;
+    private volatile StatefulRedisConnection<byte[], byte[]> connection;
+
+    public NearCacheInvalidator(
+            RedisClient redisClient,
+            RedisURI redisURI,
+            NearCache<K, ?> nearCache,
+            RedisSerializer<K> keySerializer,
+            List<String> prefixes) {
+        this.redisClient = redisClient;
+        this.redisURI = redisURI;
+        this.nearCache = nearCache;
+        this.keySerializer = keySerializer;
+        this.prefixes = prefixes.toArray(new String[0]);
+    }
+
+    public void start() {
+        redisClient.addListener(this);
+        try {
+            connection = redisClient.connect(ByteArrayCodec.INSTANCE, redisURI);
+            connection.addListener(this);
+            connection.sync().clientTracking(trackingArgs());
+            logger.info("Redis near cache invalidation enabled on {}", redisURI);
+        } catch (Exception e) {
+            logger.warn("Redis CLIENT TRACKING unavailable, near cache relies on TTL only: {}", e.getMessage());
+        }
+    }
+
+    public void close() {
+        redisClient.removeListener(this);
+        StatefulRedisConnection<byte[], byte[]> current = connection;
+        if (current != null) {
+            current.removeListener(this);
+            current.close();
+        }
+    }
+
+    @Override
+    public void onPushMessage(PushMessage message) {
+        if (!"invalidate".equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(buffer -> {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        });
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        if (!(keys instanceof List)) {
+            // Null payload is sent on FLUSHDB / FLUSHALL
+            nearCache.invalidateAll("flush");
+            return;
+        }
+        for (Object rawKey : (List<?>) keys) {
+            try {
+                K key = keySerializer.deserialize((byte[]) rawKey);
+                if (key != null) {
+                    nearCache.invalidate(key, "tracking");
+                }
+            } catch (Exception e) {
+                logger.warn("Unable to decode invalidated key, flushing near cache: {}", e.getMessage());
+                nearCache.invalidateAll("flush");
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress address) {
+        StatefulRedisConnection<byte[], byte[]> current = connection;
+        if (current != null && handler == current) {
+            // Tracking state is per connection and is lost on reconnect, so the near cache stays bypassed until
+            // the server confirms tracking again; anything cached in between would never be invalidated
+            current.async().clientTracking(trackingArgs()).whenComplete((reply, e) -> {
+                if (e != null) {
+                    logger.warn("Redis CLIENT TRACKING not re-enabled after reconnect, near cache stays bypassed: {}",
+                            e.getMessage());
+                    return;
+                }
+                nearCache.invalidateAll("reconnect");
+                nearCache.setBypassed(false);
+                logger.info("Redis near cache invalidation re-enabled on {}", redisURI);
+            });
+        }
+    }
+
+    @Override
+    public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+        if (handler == connection) {
+            logger.warn("Redis near cache invalidation connection lost, flushing near cache");
+            nearCache.setBypassed(true);
+            nearCache.invalidateAll("disconnect");
+        }
+    }
+
+    @Override
+    public void onRedisExceptionCaught(RedisChannelHandler<?, ?> handler, Throwable cause) {
+    }
+
+    private TrackingArgs trackingArgs() {
+        TrackingArgs args = TrackingArgs.Builder.enabled().bcast();
+        if (prefixes.length > 0) {
+            args.prefixes(prefixes);
+        }
+        return args;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import io.lettuce.core.RedisCommandTimeoutException;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Per-request deadline for the Redis calls a thread makes. Within {@link #call} every command's timeout is capped at
+ * the time left, retries are only attempted while they can still finish in time, and calls made once it has passed
+ * fail fast with a {@link RedisCommandTimeoutException}, which the templates handle like any other timeout. A nested
+ * deadline can shorten the enclosing one but never extend it.
+ */
+public final class RedisDeadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = ThreadLocal.withInitial(Deadline::new);
+
+    private RedisDeadline() {
+    }
+
+    public static <T> T call(Duration budget, Supplier<T> call) {
+        Deadline current = CURRENT.get();
+        boolean wasSet = current.set;
+        long previous = current.nanos;
+        long deadline = System.nanoTime() + budget.toNanos();
+        if (wasSet && previous - deadline < 0) {
+            deadline = previous;
+        }
+        current.set = true;
+        current.nanos = deadline;
+        try {
+            return call.get();
+        } finally {
+            current.set = wasSet;
+            current.nanos = previous;
+        }
+    }
+
+    public static void run(Duration budget, Runnable call) {
+        call(budget, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public static boolean isSet() {
+        return CURRENT.get().set;
+    }
+
+    /**
+     * Time left before the current thread's deadline, {@link Long#MAX_VALUE} without one.
+     */
+    public static long remainingNanos() {
+        Deadline current = CURRENT.get();
+        return current.set ? current.nanos - System.nanoTime() : Long.MAX_VALUE;
+    }
+
+    static void check() {
+        if (remainingNanos() <= 0) {
+            throw new RedisCommandTimeoutException("Request deadline exceeded");
+        }
+    }
+
+    private static final class Deadline {
+        private boolean set;
+        private long nanos;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisCommandInterruptedException;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisConnectionException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+public final class RedisErrorClassifier {
+
+    // Server replies that clear up on their own; everything else (WRONGTYPE, ERR, NOAUTH, ...) is permanent
+    private static final String[] TRANSIENT_REPLIES = {"LOADING", "BUSY", "TRYAGAIN", "MASTERDOWN", "CLUSTERDOWN"};
+
+    private RedisErrorClassifier() {
+    }
+
+    public static boolean isTransient(Throwable throwable) {
+        Throwable current = unwrap(throwable);
+        int depth = 0;
+        while (current != null && depth++ < 10) {
+            if (current instanceof SerializationException || current instanceof RedisCommandInterruptedException) {
+                return false;
+            }
+            if (current instanceof RedisCommandExecutionException) {
+                return isTransientReply(current.getMessage());
+            }
+            if (current instanceof RedisConnectionException
+                    || current instanceof RedisCommandTimeoutException
+                    || current instanceof RedisConnectionFailureException
+                    || current instanceof QueryTimeoutException
+                    || current instanceof IOException) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    public static Throwable unwrap(Throwable throwable) {
+        Throwable current = throwable;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    private static boolean isTransientReply(String message) {
+        if (message == null) {
+            return false;
+        }
+        for (String reply : TRANSIENT_REPLIES) {
+            if (message.startsWith(reply)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
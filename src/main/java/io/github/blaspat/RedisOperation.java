@@ -0,0 +1,53 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.blaspat;
+
+/**
+ * Operations instrumented by {@link ResilientRedisMetrics}. Meters are resolved per operation up front, so recording
+ * is an array lookup rather than a tag-keyed map lookup.
+ */
+public enum RedisOperation {
+    GET("get", "read"),
+    GET_OR_LOAD("getOrLoad", "read"),
+    PUT("put", "write"),
+    PUT_WITH_TTL("putWithTTL", "write"),
+    EVICT("evict", "write"),
+    MULTI_GET("multiGet", "read"),
+    MULTI_PUT("multiPut", "write"),
+    MULTI_EVICT("multiEvict", "write"),
+    CLEAR("clear", "clear"),
+    CLEAR_PREFIX("clearPrefix", "clear"),
+    CACHE_GET("cacheGet", "read");
+
+    private final String tag;
+    private final String category;
+
+    RedisOperation(String tag, String category) {
+        this.tag = tag;
+        this.category = category;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    /**
+     * Circuit breaker and bulkhead name shared by operations with similar cost and failure modes.
+     */
+    public String category() {
+        return category;
+    }
+}
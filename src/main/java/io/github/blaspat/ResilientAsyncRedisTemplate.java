@@ -0,0 +1,169 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of {@link ResilientRedisTemplate}. Commands go through Lettuce's reactive API, retries are
+ * scheduled on a timer instead of sleeping the caller, and failures complete the stage with {@code null}.
+ */
+public class ResilientAsyncRedisTemplate<K, V> {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final ReactiveRedisTemplate<K, V> reactiveRedisTemplate;
+    private final CircuitBreakerManager circuitBreakerManager;
+    private final RetryManager retryManager;
+    private final ResilientRedisMetrics metrics;
+    private BulkheadManager bulkheadManager;
+
+    public ResilientAsyncRedisTemplate(ReactiveRedisTemplate<K, V> reactiveRedisTemplate) {
+        this(reactiveRedisTemplate, null, null, null);
+    }
+
+    public ResilientAsyncRedisTemplate(
+            ReactiveRedisTemplate<K, V> reactiveRedisTemplate,
+            CircuitBreakerManager circuitBreakerManager,
+            RetryManager retryManager,
+            ResilientRedisMetrics metrics) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.circuitBreakerManager = circuitBreakerManager;
+        this.retryManager = retryManager;
+        this.metrics = metrics;
+    }
+
+    public void setBulkheadManager(BulkheadManager bulkheadManager) {
+        this.bulkheadManager = bulkheadManager;
+    }
+
+    @SuppressWarnings("unchecked")
+    public CompletionStage<V> get(K key) {
+        CompletionStage<V> stage = executeWithResilience(RedisOperation.GET,
+                () -> reactiveRedisTemplate.opsForValue().get(key)
+                        .map(value -> (V) EarlyRefreshEntry.unwrap(value))
+                        .toFuture());
+        return stage.handle((result, throwable) -> {
+            if (throwable == null) {
+                if (result != null) {
+                    recordHit(RedisOperation.GET);
+                } else {
+                    recordMiss(RedisOperation.GET);
+                }
+                return CompletableFuture.completedFuture(result);
+            }
+            Throwable cause = RedisErrorClassifier.unwrap(throwable);
+            if (cause instanceof SerializationException) {
+                logger.warn("Serialization error for key '{}', evicting corrupted cache entry: {}", key, cause.getMessage());
+                return this.evict(key).thenApply(ignored -> (V) null);
+            }
+            return CompletableFuture.completedFuture(this.<V>fallback(RedisOperation.GET, cause));
+        }).thenCompose(stageResult -> stageResult);
+    }
+
+    public CompletionStage<Void> put(K key, V value) {
+        return executeVoid(RedisOperation.PUT, () -> reactiveRedisTemplate.opsForValue().set(key, value).toFuture());
+    }
+
+    public CompletionStage<Void> putWithTTL(K key, V value, long timeout, TimeUnit unit) {
+        Duration ttl = Duration.ofMillis(unit.toMillis(timeout));
+        return executeVoid(RedisOperation.PUT_WITH_TTL, () -> reactiveRedisTemplate.opsForValue().set(key, value, ttl).toFuture());
+    }
+
+    public CompletionStage<Void> evict(K key) {
+        return executeVoid(RedisOperation.EVICT, () -> reactiveRedisTemplate.delete(key).toFuture());
+    }
+
+    private <T> CompletionStage<Void> executeVoid(RedisOperation operation, Supplier<CompletionStage<T>> supplier) {
+        return executeWithResilience(operation, supplier).handle((result, throwable) -> {
+            if (throwable != null) {
+                fallback(operation, RedisErrorClassifier.unwrap(throwable));
+            }
+            return null;
+        });
+    }
+
+    private <T> CompletionStage<T> executeWithResilience(RedisOperation operation, Supplier<CompletionStage<T>> supplier) {
+        long start = metrics != null ? metrics.startTimer() : ResilientRedisMetrics.NOT_SAMPLED;
+        Supplier<CompletionStage<T>> decorated = supplier;
+
+        if (retryManager != null) {
+            decorated = () -> retryManager.executeAsync(supplier);
+        }
+
+        if (circuitBreakerManager != null) {
+            Supplier<CompletionStage<T>> retried = decorated;
+            decorated = () -> circuitBreakerManager.executeAsync(operation.category(), retried);
+        }
+
+        if (bulkheadManager != null) {
+            Supplier<CompletionStage<T>> guarded = decorated;
+            decorated = () -> bulkheadManager.executeAsync(operation.category(), guarded);
+        }
+
+        CompletionStage<T> stage;
+        try {
+            stage = decorated.get();
+        } catch (Exception e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            stage = failed;
+        }
+        return stage.whenComplete((result, throwable) -> {
+            if (metrics != null) {
+                metrics.stopTimer(operation, start);
+            }
+        });
+    }
+
+    private <T> T fallback(RedisOperation operation, Throwable cause) {
+        if (cause instanceof CallNotPermittedException || cause instanceof BulkheadFullException) {
+            logger.debug("Redis {} skipped: {}", operation.tag(), cause.getMessage());
+            if (metrics != null) {
+                metrics.recordFallback(operation);
+            }
+            return null;
+        }
+        logger.error("Redis {} error: {}", operation.tag(), cause.getMessage());
+        if (metrics != null) {
+            metrics.recordError(operation, cause);
+        }
+        return null;
+    }
+
+    private void recordHit(RedisOperation operation) {
+        if (metrics != null) {
+            metrics.recordHit(operation);
+        }
+    }
+
+    private void recordMiss(RedisOperation operation) {
+        if (metrics != null) {
+            metrics.recordMiss(operation);
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package io.github.blaspat;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.lettuce.core.RedisCommandExecutionException;
 import io.lettuce.core.RedisCommandInterruptedException;
 import io.lettuce.core.RedisCommandTimeoutException;
@@ -23,24 +25,97 @@ import io.lettuce.core.RedisConnectionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.serializer.SerializationException;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class ResilientCacheDecorator implements Cache {
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final Cache delegate;
+    private final RetryManager retryManager;
+    private final LastKnownGoodStore lastKnownGood;
+    private final ResilientRedisMetrics metrics;
+    private final String isolationName;
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> loadsInFlight = new ConcurrentHashMap<>();
+    private EarlyRefresher earlyRefresher;
+    private Duration ttl;
+    private CircuitBreakerManager circuitBreakerManager;
+    private BulkheadManager bulkheadManager;
+    private HotKeyDetector hotKeys;
 
     public ResilientCacheDecorator(Cache delegate) {
+        this(delegate, null, null, null);
+    }
+
+    public ResilientCacheDecorator(Cache delegate, RetryManager retryManager) {
+        this(delegate, retryManager, null, null);
+    }
+
+    public ResilientCacheDecorator(
+            Cache delegate,
+            RetryManager retryManager,
+            LastKnownGoodStore lastKnownGood,
+            ResilientRedisMetrics metrics) {
         this.delegate = delegate;
+        this.retryManager = retryManager;
+        this.lastKnownGood = lastKnownGood;
+        this.metrics = metrics;
+        this.isolationName = "cache." + delegate.getName();
+    }
+
+    public void setEarlyRefresh(EarlyRefresher earlyRefresher, Duration ttl) {
+        this.earlyRefresher = earlyRefresher;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Guards this cache with its own circuit breaker and bulkhead, named {@code cache.<cacheName>}.
+     */
+    public void setIsolation(CircuitBreakerManager circuitBreakerManager, BulkheadManager bulkheadManager) {
+        this.circuitBreakerManager = circuitBreakerManager;
+        this.bulkheadManager = bulkheadManager;
+    }
+
+    /**
+     * Feeds sampled lookups to {@code hotKeys}, keyed as {@code <cacheName>::<key>}.
+     */
+    public void setHotKeyDetector(HotKeyDetector hotKeys) {
+        this.hotKeys = hotKeys;
     }
 
     @Override
     public ValueWrapper get(Object key) {
+        recordAccess(key);
         try {
-            return delegate.get(key);
-        } catch (RedisConnectionException |
+            ValueWrapper wrapper = withRetry(() -> delegate.get(key));
+            if (wrapper == null) {
+                return null;
+            }
+            recordLastKnownGood(key, wrapper.get());
+            if (wrapper.get() instanceof EarlyRefreshEntry) {
+                return new SimpleValueWrapper(EarlyRefreshEntry.unwrap(wrapper.get()));
+            }
+            return wrapper;
+        } catch (CallNotPermittedException |
+                 BulkheadFullException |
+                 RedisConnectionException |
                  RedisCommandTimeoutException |
                  RedisCommandExecutionException |
                  DataAccessException |
@@ -48,7 +123,8 @@ public class ResilientCacheDecorator implements Cache {
                 e  )
         {
             logger.error("Cache retrieval error: " + e.getMessage());
-            return null;
+            Object stale = staleValue(key);
+            return stale != null ? new SimpleValueWrapper(stale) : null;
         } catch (SerializationException ex) {
             logger.debug("Cache retrieval error serialization for key {} : {}, cache evicted then returned", key, ex.getMessage());
             this.evict(key);
@@ -57,10 +133,20 @@ public class ResilientCacheDecorator implements Cache {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T get(Object key, Class<T> type) {
+        recordAccess(key);
         try {
-            return delegate.get(key, type);
-        } catch (RedisConnectionException |
+            ValueWrapper wrapper = withRetry(() -> delegate.get(key));
+            Object value = wrapper != null ? EarlyRefreshEntry.unwrap(wrapper.get()) : null;
+            if (value != null && type != null && !type.isInstance(value)) {
+                throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+            }
+            recordLastKnownGood(key, value);
+            return (T) value;
+        } catch (CallNotPermittedException |
+                 BulkheadFullException |
+                 RedisConnectionException |
                  RedisCommandTimeoutException |
                  RedisCommandExecutionException |
                  DataAccessException |
@@ -68,7 +154,8 @@ public class ResilientCacheDecorator implements Cache {
                 e  )
         {
             logger.error("Cache retrieval error: " + e.getMessage());
-            return null;
+            Object stale = staleValue(key);
+            return type != null && type.isInstance(stale) ? type.cast(stale) : null;
         } catch (SerializationException ex) {
             logger.debug("Cache retrieval error serialization for key {} : {}, cache evicted then returned", key, ex.getMessage());
             this.evict(key);
@@ -77,30 +164,247 @@ public class ResilientCacheDecorator implements Cache {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T get(Object key, Callable<T> valueLoader) {
+        recordAccess(key);
+        ValueWrapper cached = lookupForLoad(key);
+        if (cached != null) {
+            Object value = cached.get();
+            if (value instanceof EarlyRefreshEntry) {
+                EarlyRefreshEntry entry = (EarlyRefreshEntry) value;
+                if (earlyRefresher != null && earlyRefresher.shouldRefresh(entry)) {
+                    earlyRefresher.refresh(new StoreKey(getName(), key), () -> {
+                        if (!loadsInFlight.containsKey(key)) {
+                            load(key, valueLoader, false);
+                        }
+                    });
+                }
+                return (T) entry.getValue();
+            }
+            return (T) value;
+        }
+        return load(key, valueLoader, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T load(Object key, Callable<T> valueLoader, boolean recheck) {
+        // One loader run per key per JVM, concurrent callers wait for the leader's result
+        CompletableFuture<Object> loading = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loadsInFlight.putIfAbsent(key, loading);
+        if (inFlight != null) {
+            recordLoad(true);
+            return (T) awaitLoad(key, valueLoader, inFlight);
+        }
+        try {
+            if (recheck) {
+                // A load that finished between the caller's lookup and putIfAbsent has already stored the value
+                ValueWrapper cached = lookupForLoad(key);
+                if (cached != null) {
+                    Object value = EarlyRefreshEntry.unwrap(cached.get());
+                    loading.complete(value);
+                    return (T) value;
+                }
+            }
+            recordLoad(false);
+            long start = System.nanoTime();
+            T value = valueLoader.call();
+            putLoaded(key, value, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            loading.complete(value);
+            return value;
+        } catch (Exception e) {
+            loading.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loadsInFlight.remove(key, loading);
+        }
+    }
+
+    /**
+     * Bulk cache-aside: reads all keys with one MGET, calls {@code bulkLoader} once with the keys that were absent
+     * and writes what it returns back in one pipeline with the cache TTL. Read and write failures are handled like
+     * {@link #get(Object, Callable)} and {@link #put}: a failed read runs the loader for every key, a failed write is
+     * logged. Keys found in neither the cache nor the loader result are left out of the returned map.
+     */
+    public Map<Object, Object> getAll(Collection<?> keys, Function<Set<?>, Map<?, ?>> bulkLoader) {
+        for (Object key : keys) {
+            recordAccess(key);
+        }
+        Map<Object, Object> found = lookupAllForLoad(keys);
+        Set<Object> misses = new LinkedHashSet<>();
+        Set<Object> due = new LinkedHashSet<>();
+        for (Object key : keys) {
+            if (!found.containsKey(key)) {
+                misses.add(key);
+                continue;
+            }
+            Object value = found.get(key);
+            if (value instanceof EarlyRefreshEntry) {
+                if (earlyRefresher != null && earlyRefresher.shouldRefresh((EarlyRefreshEntry) value)) {
+                    due.add(key);
+                }
+                found.put(key, ((EarlyRefreshEntry) value).getValue());
+            }
+        }
+        if (!due.isEmpty()) {
+            earlyRefresher.refresh(new StoreKey(getName(), due), () -> loadAll(due, bulkLoader));
+        }
+        Map<Object, Object> loaded = misses.isEmpty() ? new HashMap<>() : loadAll(misses, bulkLoader);
+        Map<Object, Object> result = new LinkedHashMap<>();
+        for (Object key : keys) {
+            if (found.containsKey(key)) {
+                result.put(key, found.get(key));
+            } else if (loaded.containsKey(key)) {
+                result.put(key, loaded.get(key));
+            }
+        }
+        return result;
+    }
+
+    private Map<Object, Object> lookupAllForLoad(Collection<?> keys) {
+        ResilientRedisCache bulkCache = bulkCache();
+        if (bulkCache != null) {
+            try {
+                Map<Object, Object> found = withRetry(() -> bulkCache.getAll(keys));
+                for (Map.Entry<Object, Object> entry : found.entrySet()) {
+                    recordLastKnownGood(entry.getKey(), entry.getValue());
+                }
+                return found;
+            } catch (CallNotPermittedException |
+                     BulkheadFullException |
+                     RedisConnectionException |
+                     RedisCommandTimeoutException |
+                     RedisCommandExecutionException |
+                     DataAccessException |
+                     RedisCommandInterruptedException
+                    e  )
+            {
+                logger.error("Cache bulk retrieval error, running bulk loader: " + e.getMessage());
+                return new HashMap<>();
+            } catch (SerializationException ex) {
+                logger.debug("Cache bulk retrieval error serialization: {}, falling back to single-key lookups", ex.getMessage());
+            }
+        }
+        Map<Object, Object> found = new HashMap<>();
+        for (Object key : keys) {
+            ValueWrapper wrapper = lookupForLoad(key);
+            if (wrapper != null) {
+                recordLastKnownGood(key, wrapper.get());
+                found.put(key, wrapper.get());
+            }
+        }
+        return found;
+    }
+
+    private Map<Object, Object> loadAll(Set<Object> misses, Function<Set<?>, Map<?, ?>> bulkLoader) {
+        for (int i = 0; i < misses.size(); i++) {
+            recordLoad(false);
+        }
+        long start = System.nanoTime();
+        Map<?, ?> loaded = bulkLoader.apply(misses);
+        long computeMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        Map<Object, Object> values = new LinkedHashMap<>();
+        Map<Object, Object> toStore = new LinkedHashMap<>();
+        if (loaded != null) {
+            for (Map.Entry<?, ?> entry : loaded.entrySet()) {
+                if (misses.contains(entry.getKey())) {
+                    values.put(entry.getKey(), entry.getValue());
+                    toStore.put(entry.getKey(), storeValue(entry.getValue(), computeMicros));
+                }
+            }
+        }
+        putAll(toStore);
+        return values;
+    }
+
+    private void putAll(Map<Object, Object> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        ResilientRedisCache bulkCache = bulkCache();
+        if (bulkCache == null) {
+            entries.forEach(this::put);
+            return;
+        }
         try {
-            return delegate.get(key, valueLoader);
-        } catch (RedisConnectionException |
+            withRetry(() -> bulkCache.putAll(entries));
+            for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+                recordLastKnownGood(entry.getKey(), entry.getValue());
+            }
+        } catch (CallNotPermittedException |
+                 BulkheadFullException |
+                 RedisConnectionException |
                  RedisCommandTimeoutException |
                  RedisCommandExecutionException |
                  DataAccessException |
                  RedisCommandInterruptedException
                 e  )
         {
-            logger.error("Cache retrieval error: " + e.getMessage());
+            logger.error("Cache bulk put error: " + e.getMessage());
+        }
+    }
+
+    private ResilientRedisCache bulkCache() {
+        Cache target = getTargetCache();
+        return target instanceof ResilientRedisCache ? (ResilientRedisCache) target : null;
+    }
+
+    private Object storeValue(Object value, long computeMicros) {
+        if (earlyRefresher == null || value == null || ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return value;
+        }
+        return new EarlyRefreshEntry(value, computeMicros, System.currentTimeMillis() + ttl.toMillis());
+    }
+
+    private void putLoaded(Object key, Object value, long computeMicros) {
+        put(key, storeValue(value, computeMicros));
+    }
+
+    private ValueWrapper lookupForLoad(Object key) {
+        try {
+            return withRetry(() -> delegate.get(key));
+        } catch (CallNotPermittedException |
+                 BulkheadFullException |
+                 RedisConnectionException |
+                 RedisCommandTimeoutException |
+                 RedisCommandExecutionException |
+                 DataAccessException |
+                 RedisCommandInterruptedException
+                e  )
+        {
+            logger.error("Cache retrieval error, running value loader: " + e.getMessage());
             return null;
         } catch (SerializationException ex) {
-            logger.debug("Cache retrieval error serialization for key {} : {}, cache evicted then returned", key, ex.getMessage());
+            logger.debug("Cache retrieval error serialization for key {} : {}, cache evicted then loaded", key, ex.getMessage());
             this.evict(key);
             return null;
         }
     }
 
+    private Object awaitLoad(Object key, Callable<?> valueLoader, CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private void recordLoad(boolean coalesced) {
+        if (metrics != null) {
+            metrics.recordCacheLoad(getName(), coalesced);
+        }
+    }
+
     @Override
     public void put(Object key, Object value) {
         try {
-            delegate.put(key, value);
-        } catch (RedisConnectionException |
+            withRetry(() -> delegate.put(key, value));
+            recordLastKnownGood(key, value);
+        } catch (CallNotPermittedException |
+                 BulkheadFullException |
+                 RedisConnectionException |
                  RedisCommandTimeoutException |
                  RedisCommandExecutionException |
                  DataAccessException |
@@ -114,8 +418,13 @@ public class ResilientCacheDecorator implements Cache {
     @Override
     public void evict(Object key) {
         try {
-            delegate.evict(key);
-        } catch (RedisConnectionException |
+            if (lastKnownGood != null) {
+                lastKnownGood.remove(new StoreKey(getName(), key));
+            }
+            withRetry(() -> delegate.evict(key));
+        } catch (CallNotPermittedException |
+                 BulkheadFullException |
+                 RedisConnectionException |
                  RedisCommandTimeoutException |
                  RedisCommandExecutionException |
                  DataAccessException |
@@ -129,8 +438,14 @@ public class ResilientCacheDecorator implements Cache {
     @Override
     public void clear() {
         try {
-            delegate.clear();
-        } catch (RedisConnectionException |
+            if (lastKnownGood != null) {
+                String name = getName();
+                lastKnownGood.removeIf(storeKey -> storeKey instanceof StoreKey && ((StoreKey) storeKey).cacheName.equals(name));
+            }
+            withRetry(delegate::clear);
+        } catch (CallNotPermittedException |
+                 BulkheadFullException |
+                 RedisConnectionException |
                  RedisCommandTimeoutException |
                  RedisCommandExecutionException |
                  DataAccessException |
@@ -141,6 +456,53 @@ public class ResilientCacheDecorator implements Cache {
         }
     }
 
+    private void recordAccess(Object key) {
+        // The store key is only built for the sampled share of lookups
+        if (hotKeys != null && hotKeys.sample()) {
+            hotKeys.add(new StoreKey(getName(), key));
+        }
+    }
+
+    private void recordLastKnownGood(Object key, Object value) {
+        if (lastKnownGood != null) {
+            lastKnownGood.record(new StoreKey(getName(), key), EarlyRefreshEntry.unwrap(value));
+        }
+    }
+
+    private Object staleValue(Object key) {
+        return lastKnownGood != null ? lastKnownGood.getStale(new StoreKey(getName(), key), RedisOperation.CACHE_GET) : null;
+    }
+
+    private <T> T withRetry(Supplier<T> supplier) {
+        Supplier<T> decorated = supplier;
+        if (RedisDeadline.isSet()) {
+            decorated = () -> {
+                RedisDeadline.check();
+                return supplier.get();
+            };
+        }
+        if (retryManager != null) {
+            Supplier<T> attempt = decorated;
+            decorated = () -> retryManager.execute(attempt);
+        }
+        if (circuitBreakerManager != null) {
+            Supplier<T> retried = decorated;
+            decorated = () -> circuitBreakerManager.execute(isolationName, retried);
+        }
+        if (bulkheadManager != null) {
+            Supplier<T> guarded = decorated;
+            decorated = () -> bulkheadManager.execute(isolationName, guarded);
+        }
+        return decorated.get();
+    }
+
+    private void withRetry(Runnable runnable) {
+        withRetry(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
     @Override
     public String getName() {
         return delegate.getName();
@@ -150,4 +512,45 @@ public class ResilientCacheDecorator implements Cache {
     public Object getNativeCache() {
         return delegate.getNativeCache();
     }
+
+    /**
+     * The decorated cache, without a transaction-aware wrapper.
+     */
+    public Cache getTargetCache() {
+        return delegate instanceof TransactionAwareCacheDecorator
+                ? ((TransactionAwareCacheDecorator) delegate).getTargetCache()
+                : delegate;
+    }
+
+    static final class StoreKey {
+        private final String cacheName;
+        private final Object key;
+
+        StoreKey(String cacheName, Object key) {
+            this.cacheName = cacheName;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof StoreKey)) {
+                return false;
+            }
+            StoreKey that = (StoreKey) other;
+            return cacheName.equals(that.cacheName) && Objects.equals(key, that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * cacheName.hashCode() + Objects.hashCode(key);
+        }
+
+        @Override
+        public String toString() {
+            return cacheName + "::" + key;
+        }
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RedisCache} with multi-key reads and writes, so a batch of keys costs one MGET and one pipelined write
+ * instead of a round trip per key. Keys and values go through the same prefixing and serialization as single-key
+ * operations.
+ */
+public class ResilientRedisCache extends RedisCache {
+    private final RedisConnectionFactory connectionFactory;
+    private SharedConnectionPipeline sharedConnectionPipeline;
+
+    protected ResilientRedisCache(
+            String name,
+            RedisCacheWriter cacheWriter,
+            RedisCacheConfiguration cacheConfig,
+            RedisConnectionFactory connectionFactory) {
+        super(name, cacheWriter, cacheConfig);
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Sends {@link #putAll} over the shared native connection instead of a dedicated pipelined one.
+     */
+    public void setSharedConnectionPipeline(SharedConnectionPipeline sharedConnectionPipeline) {
+        this.sharedConnectionPipeline = sharedConnectionPipeline;
+    }
+
+    /**
+     * Looks up all keys with one MGET. Absent keys are left out of the result, keys cached as {@code null} map to
+     * {@code null}.
+     */
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        List<Object> ordered = new ArrayList<>(keys);
+        Map<Object, Object> result = new LinkedHashMap<>();
+        if (ordered.isEmpty()) {
+            return result;
+        }
+        byte[][] binaryKeys = new byte[ordered.size()][];
+        for (int i = 0; i < binaryKeys.length; i++) {
+            binaryKeys[i] = serializeCacheKey(createCacheKey(ordered.get(i)));
+        }
+        List<byte[]> values;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            values = connection.stringCommands().mGet(binaryKeys);
+        }
+        for (int i = 0; values != null && i < ordered.size() && i < values.size(); i++) {
+            byte[] value = values.get(i);
+            if (value != null) {
+                result.put(ordered.get(i), fromStoreValue(deserializeCacheValue(value)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes all entries in one pipeline with the cache TTL. {@code null} values are skipped unless the cache
+     * allows them.
+     */
+    public void putAll(Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Duration ttl = getCacheConfiguration().getTtl();
+        if (sharedConnectionPipeline != null) {
+            putShared(entries, ttl);
+            return;
+        }
+        Expiration expiration = ttl == null || ttl.isZero() || ttl.isNegative()
+                ? Expiration.persistent()
+                : Expiration.from(ttl.toMillis(), TimeUnit.MILLISECONDS);
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            try {
+                for (Map.Entry<?, ?> entry : entries.entrySet()) {
+                    Object cacheValue = preProcessCacheValue(entry.getValue());
+                    if (cacheValue == null) {
+                        continue;
+                    }
+                    connection.stringCommands().set(
+                            serializeCacheKey(createCacheKey(entry.getKey())),
+                            serializeCacheValue(cacheValue),
+                            expiration,
+                            RedisStringCommands.SetOption.upsert());
+                }
+            } finally {
+                connection.closePipeline();
+            }
+        }
+    }
+
+    private void putShared(Map<?, ?> entries, Duration ttl) {
+        List<byte[]> keys = new ArrayList<>(entries.size());
+        List<byte[]> values = new ArrayList<>(entries.size());
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            Object cacheValue = preProcessCacheValue(entry.getValue());
+            if (cacheValue == null) {
+                continue;
+            }
+            keys.add(serializeCacheKey(createCacheKey(entry.getKey())));
+            values.add(serializeCacheValue(cacheValue));
+        }
+        if (!keys.isEmpty()) {
+            sharedConnectionPipeline.set(keys, values, ttl == null || ttl.isNegative() ? 0 : ttl.toMillis());
+        }
+    }
+}
@@ -17,20 +17,110 @@
 package io.github.blaspat;
 
 import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 public class ResilientRedisCacheManager extends RedisCacheManager {
+    private final RedisCacheWriter cacheWriter;
+    private final RedisCacheConfiguration defaultCacheConfiguration;
+    private RedisConnectionFactory connectionFactory;
+    private SharedConnectionPipeline sharedConnectionPipeline;
+    private RetryManager retryManager;
+    private LastKnownGoodStore lastKnownGood;
+    private ResilientRedisMetrics metrics;
+    private EarlyRefresher earlyRefresher;
+    private CircuitBreakerManager circuitBreakerManager;
+    private BulkheadManager bulkheadManager;
+    private HotKeyDetector hotKeyDetector;
+
     public ResilientRedisCacheManager(RedisCacheWriter cacheWriter, RedisCacheConfiguration defaultCacheConfiguration, Map<String, RedisCacheConfiguration> cacheConfigurations) {
         super(cacheWriter, defaultCacheConfiguration, cacheConfigurations);
+        this.cacheWriter = cacheWriter;
+        this.defaultCacheConfiguration = defaultCacheConfiguration;
+    }
+
+    /**
+     * Enables {@link ResilientCacheDecorator#getAll} to read and write through one MGET and one pipeline.
+     */
+    public void setConnectionFactory(RedisConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Used for bulk writes in shared connection mode, where a pipelined write would open a new connection.
+     */
+    public void setSharedConnectionPipeline(SharedConnectionPipeline sharedConnectionPipeline) {
+        this.sharedConnectionPipeline = sharedConnectionPipeline;
+    }
+
+    public void setRetryManager(RetryManager retryManager) {
+        this.retryManager = retryManager;
+    }
+
+    public void setLastKnownGood(LastKnownGoodStore lastKnownGood) {
+        this.lastKnownGood = lastKnownGood;
+    }
+
+    public void setMetrics(ResilientRedisMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setEarlyRefresher(EarlyRefresher earlyRefresher) {
+        this.earlyRefresher = earlyRefresher;
+    }
+
+    public void setCircuitBreakerManager(CircuitBreakerManager circuitBreakerManager) {
+        this.circuitBreakerManager = circuitBreakerManager;
+    }
+
+    public void setBulkheadManager(BulkheadManager bulkheadManager) {
+        this.bulkheadManager = bulkheadManager;
+    }
+
+    public void setHotKeyDetector(HotKeyDetector hotKeyDetector) {
+        this.hotKeyDetector = hotKeyDetector;
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfig) {
+        if (connectionFactory == null) {
+            return super.createRedisCache(name, cacheConfig);
+        }
+        ResilientRedisCache cache = new ResilientRedisCache(name, cacheWriter, cacheConfig != null ? cacheConfig : defaultCacheConfiguration, connectionFactory);
+        cache.setSharedConnectionPipeline(sharedConnectionPipeline);
+        return cache;
+    }
+
+    @Override
+    protected Cache decorateCache(Cache cache) {
+        // Decorated once per cache so in-flight loads are shared by every caller of that cache
+        ResilientCacheDecorator decorator = new ResilientCacheDecorator(super.decorateCache(cache), retryManager, lastKnownGood, metrics);
+        decorator.setIsolation(circuitBreakerManager, bulkheadManager);
+        decorator.setHotKeyDetector(hotKeyDetector);
+        if (earlyRefresher != null && cache instanceof RedisCache) {
+            decorator.setEarlyRefresh(earlyRefresher, ((RedisCache) cache).getCacheConfiguration().getTtl());
+        }
+        return decorator;
     }
 
     @Override
-    public Cache getCache(String name) {
-        Cache cache = super.getCache(name);
-        return (cache == null) ? null : new ResilientCacheDecorator(cache);
+    public Map<String, RedisCacheConfiguration> getCacheConfigurations() {
+        // The base implementation casts every cache to RedisCache, which the decorator is not
+        Map<String, RedisCacheConfiguration> configurations = new HashMap<>(getCacheNames().size());
+        for (String name : getCacheNames()) {
+            Cache cache = lookupCache(name);
+            if (cache instanceof ResilientCacheDecorator) {
+                cache = ((ResilientCacheDecorator) cache).getTargetCache();
+            }
+            configurations.put(name, cache instanceof RedisCache ? ((RedisCache) cache).getCacheConfiguration() : null);
+        }
+        return Collections.unmodifiableMap(configurations);
     }
 }
@@ -18,30 +18,52 @@ package io.github.blaspat;
 
 import io.lettuce.core.ClientOptions;
 import io.lettuce.core.ReadFrom;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
 import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.resource.ClientResources;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.ClassUtils;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -61,64 +83,281 @@ public class ResilientRedisConfig {
     }
 
     @Bean
-    public LettuceConnectionFactory redisConnectionFactory() {
-        GenericObjectPoolConfig<Object> config = new GenericObjectPoolConfig<>();
-        config.setMaxTotal(resilientRedisProperties.getLettuce().getPool().getMaxActive());
-        config.setMaxIdle(resilientRedisProperties.getLettuce().getPool().getMaxIdle());
-        config.setMinIdle(resilientRedisProperties.getLettuce().getPool().getMinIdle());
-        config.setMaxWait(resilientRedisProperties.getLettuce().getPool().getMaxWait());
+    public LettuceConnectionFactory redisConnectionFactory(
+            ObjectProvider<LatencyAwareReadFrom> replicaReadFrom,
+            CommandTimeouts commandTimeouts) {
+        ReadFrom replicaPreferred = Boolean.TRUE == resilientRedisProperties.getReplica().getEnabled()
+                ? ReadFrom.REPLICA_PREFERRED
+                : null;
+        if (isClusterMode()) {
+            RedisClusterConfiguration clusterConfiguration =
+                    new RedisClusterConfiguration(resilientRedisProperties.getCluster().getNodes());
+            if (resilientRedisProperties.getCluster().getMaxRedirects() != null) {
+                clusterConfiguration.setMaxRedirects(resilientRedisProperties.getCluster().getMaxRedirects());
+            }
+            if (resilientRedisProperties.getPassword() != null) {
+                clusterConfiguration.setPassword(resilientRedisProperties.getPassword());
+            }
+            return connectionFactory(new LettuceConnectionFactory(clusterConfiguration, clientConfiguration(replicaPreferred, null, commandTimeouts)));
+        }
+        if (isSentinelMode()) {
+            RedisProperties.Sentinel sentinel = resilientRedisProperties.getSentinel();
+            RedisSentinelConfiguration sentinelConfiguration =
+                    new RedisSentinelConfiguration(sentinel.getMaster(), new HashSet<>(sentinel.getNodes()));
+            if (resilientRedisProperties.getPassword() != null) {
+                sentinelConfiguration.setPassword(resilientRedisProperties.getPassword());
+            }
+            if (sentinel.getPassword() != null) {
+                sentinelConfiguration.setSentinelPassword(sentinel.getPassword());
+            }
+            return connectionFactory(new LettuceConnectionFactory(sentinelConfiguration, clientConfiguration(replicaPreferred, null, commandTimeouts)));
+        }
 
+        RedisStaticMasterReplicaConfiguration redisConfiguration = masterConfiguration();
         if (Boolean.TRUE == resilientRedisProperties.getReplica().getEnabled()) {
-            LettucePoolingClientConfiguration clientConfig = LettucePoolingClientConfiguration.builder()
-                    .poolConfig(config)
-                    .commandTimeout(resilientRedisProperties.getTimeout())
-                    .clientOptions(
-                            ClientOptions.builder()
-                                    .autoReconnect(true)
-                                    .socketOptions(SocketOptions.builder().connectTimeout(resilientRedisProperties.getConnectTimeout()).build())
-                                    .build()
-                    )
-                    .readFrom(ReadFrom.REPLICA)
-                    .build();
+            for (RedisURI replica : replicaUris()) {
+                redisConfiguration.addNode(replica.getHost(), replica.getPort());
+            }
+            LatencyAwareReadFrom readFrom = replicaReadFrom.getIfAvailable();
+            if (readFrom != null) {
+                return connectionFactory(new LettuceConnectionFactory(redisConfiguration, clientConfiguration(readFrom, readFrom.getClientResources(), commandTimeouts)));
+            }
+            return connectionFactory(new LettuceConnectionFactory(redisConfiguration, clientConfiguration(ReadFrom.REPLICA, null, commandTimeouts)));
+        }
+        return connectionFactory(new LettuceConnectionFactory(redisConfiguration, clientConfiguration(null, null, commandTimeouts)));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "commandTimeouts")
+    public CommandTimeouts commandTimeouts(ResilientRedisMetrics resilientRedisMetrics) {
+        ResilientRedisProperties.CommandTimeout commandTimeout = resilientRedisProperties.getCommandTimeout();
+        Map<CommandTimeouts.Kind, Duration> timeouts = CommandTimeouts.timeouts();
+        timeouts.put(CommandTimeouts.Kind.GET, commandTimeout.getGet());
+        timeouts.put(CommandTimeouts.Kind.PUT, commandTimeout.getPut());
+        timeouts.put(CommandTimeouts.Kind.EVICT, commandTimeout.getEvict());
+        timeouts.put(CommandTimeouts.Kind.SCAN, commandTimeout.getScan());
+        timeouts.put(CommandTimeouts.Kind.CLEAR, commandTimeout.getClear());
+        CommandTimeouts commandTimeouts = new CommandTimeouts(
+                resilientRedisProperties.getTimeout(),
+                timeouts,
+                commandTimeout.isAdaptive() ? commandTimeout.getWindow() : null,
+                commandTimeout.getMinSamples(),
+                commandTimeout.getSafetyFactor(),
+                commandTimeout.getFloor(),
+                commandTimeout.getCeiling());
+        resilientRedisMetrics.registerCommandTimeouts(commandTimeouts);
+        return commandTimeouts;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "replicaReadFrom")
+    public LatencyAwareReadFrom replicaReadFrom(ResilientRedisMetrics resilientRedisMetrics) {
+        ResilientRedisProperties.Replica replica = resilientRedisProperties.getReplica();
+        if (Boolean.TRUE != replica.getEnabled() || Boolean.TRUE != replica.getLatencyRouting()
+                || isClusterMode() || isSentinelMode()) {
+            return null;
+        }
+        Duration probeTimeout = resilientRedisProperties.getTimeout().compareTo(replica.getProbeInterval()) < 0
+                ? resilientRedisProperties.getTimeout()
+                : replica.getProbeInterval();
+        return new LatencyAwareReadFrom(
+                replicaUris(),
+                replica.getEwmaAlpha(),
+                replica.getEjectAfterFailures(),
+                replica.getRecoverAfterSuccesses(),
+                replica.getProbeInterval(),
+                probeTimeout,
+                resilientRedisMetrics);
+    }
+
+    private List<RedisURI> replicaUris() {
+        ResilientRedisProperties.Replica replica = resilientRedisProperties.getReplica();
+        List<RedisURI> uris = new ArrayList<>();
+        uris.add(RedisURI.create(replica.getHost(), replica.getPort()));
+        for (String node : replica.getNodes()) {
+            int separator = node.lastIndexOf(':');
+            uris.add(separator < 0
+                    ? RedisURI.create(node, 6379)
+                    : RedisURI.create(node.substring(0, separator), Integer.parseInt(node.substring(separator + 1))));
+        }
+        return uris;
+    }
 
-            RedisStaticMasterReplicaConfiguration redisConfiguration = new RedisStaticMasterReplicaConfiguration(
-                    resilientRedisProperties.getMaster().getHost(),
-                    resilientRedisProperties.getMaster().getPort());
-            redisConfiguration.addNode(
-                    resilientRedisProperties.getReplica().getHost(),
-                    resilientRedisProperties.getReplica().getPort());
-            return new LettuceConnectionFactory(redisConfiguration, clientConfig);
+    private boolean isClusterMode() {
+        RedisProperties.Cluster cluster = resilientRedisProperties.getCluster();
+        return cluster != null && cluster.getNodes() != null && !cluster.getNodes().isEmpty();
+    }
+
+    private boolean isSentinelMode() {
+        RedisProperties.Sentinel sentinel = resilientRedisProperties.getSentinel();
+        return sentinel != null && sentinel.getMaster() != null;
+    }
+
+    private String topology() {
+        return isClusterMode() ? "cluster" : isSentinelMode() ? "sentinel" : "static";
+    }
+
+    private RedisStaticMasterReplicaConfiguration masterConfiguration() {
+        return new RedisStaticMasterReplicaConfiguration(
+                resilientRedisProperties.getMaster().getHost(),
+                resilientRedisProperties.getMaster().getPort());
+    }
+
+    private boolean isSharedConnectionMode() {
+        return "shared".equalsIgnoreCase(resilientRedisProperties.getConnection().getMode());
+    }
+
+    private LettuceConnectionFactory connectionFactory(LettuceConnectionFactory connectionFactory) {
+        int flushThreshold = resilientRedisProperties.getConnection().getPipelineFlushThreshold();
+        if (flushThreshold > 0) {
+            connectionFactory.setPipeliningFlushPolicy(LettuceConnection.PipeliningFlushPolicy.buffered(flushThreshold));
+        }
+        if (isSharedConnectionMode()) {
+            connectionFactory.setShareNativeConnection(true);
+            // Open the shared connection at startup rather than on the first command
+            connectionFactory.setEagerInitialization(true);
+        }
+        return connectionFactory;
+    }
+
+    private LettuceClientConfiguration clientConfiguration(
+            ReadFrom readFrom,
+            ClientResources clientResources,
+            CommandTimeouts commandTimeouts) {
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder;
+        if (isSharedConnectionMode()) {
+            // No pool: commands multiplex over one connection, blocking commands and transactions open their own
+            builder = LettuceClientConfiguration.builder();
         } else {
-            LettucePoolingClientConfiguration clientConfig = LettucePoolingClientConfiguration.builder()
-                    .poolConfig(config)
-                    .commandTimeout(resilientRedisProperties.getTimeout())
-                    .clientOptions(
-                            ClientOptions.builder()
-                                    .autoReconnect(true)
-                                    .socketOptions(SocketOptions.builder().connectTimeout(resilientRedisProperties.getConnectTimeout()).build())
-                                    .build()
-                    )
-                    .build();
+            GenericObjectPoolConfig<Object> config = new GenericObjectPoolConfig<>();
+            config.setMaxTotal(resilientRedisProperties.getLettuce().getPool().getMaxActive());
+            config.setMaxIdle(resilientRedisProperties.getLettuce().getPool().getMaxIdle());
+            config.setMinIdle(resilientRedisProperties.getLettuce().getPool().getMinIdle());
+            config.setMaxWait(resilientRedisProperties.getLettuce().getPool().getMaxWait());
+            builder = LettucePoolingClientConfiguration.builder().poolConfig(config);
+        }
+        // Lettuce times each command out per kind; the client-side wait only backs that up
+        builder.commandTimeout(commandTimeouts.maxTimeout())
+                .clientOptions(clientOptions(commandTimeouts));
+        if (readFrom != null) {
+            builder.readFrom(readFrom);
+        }
+        if (clientResources != null) {
+            builder.clientResources(clientResources);
+        }
+        return builder.build();
+    }
 
-            RedisStaticMasterReplicaConfiguration redisConfiguration = new RedisStaticMasterReplicaConfiguration(
-                    resilientRedisProperties.getMaster().getHost(),
-                    resilientRedisProperties.getMaster().getPort());
-            return new LettuceConnectionFactory(redisConfiguration, clientConfig);
+    private ClientOptions clientOptions(CommandTimeouts commandTimeouts) {
+        SocketOptions socketOptions = SocketOptions.builder().connectTimeout(resilientRedisProperties.getConnectTimeout()).build();
+        TimeoutOptions timeoutOptions = TimeoutOptions.builder().timeoutSource(commandTimeouts).build();
+        if (isClusterMode()) {
+            // Adaptive triggers (MOVED, ASK, persistent reconnects) are always on; periodic refresh is opt-in
+            RedisProperties.Lettuce.Cluster.Refresh refresh = resilientRedisProperties.getLettuce().getCluster().getRefresh();
+            ClusterTopologyRefreshOptions.Builder topologyRefresh = ClusterTopologyRefreshOptions.builder()
+                    .enableAllAdaptiveRefreshTriggers()
+                    .dynamicRefreshSources(refresh.isDynamicRefreshSources());
+            if (refresh.getPeriod() != null) {
+                topologyRefresh.enablePeriodicRefresh(refresh.getPeriod());
+            }
+            return ClusterClientOptions.builder()
+                    .topologyRefreshOptions(topologyRefresh.build())
+                    .autoReconnect(true)
+                    .socketOptions(socketOptions)
+                    .timeoutOptions(timeoutOptions)
+                    .build();
         }
+        return ClientOptions.builder()
+                .autoReconnect(true)
+                .socketOptions(socketOptions)
+                .timeoutOptions(timeoutOptions)
+                .build();
     }
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    @ConditionalOnMissingBean(name = "clusterSlotRouter")
+    public ClusterSlotRouter clusterSlotRouter(LettuceConnectionFactory connectionFactory) {
+        return isClusterMode() ? new ClusterSlotRouter(connectionFactory) : null;
+    }
+
+    @Bean
+    public RedisTemplate<String, Object> redisTemplate(
+            RedisConnectionFactory connectionFactory,
+            RedisSerializer<Object> redisValueSerializer) {
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(connectionFactory);
         redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(redisValueSerializer);
+        redisTemplate.setHashValueSerializer(redisValueSerializer);
         return redisTemplate;
     }
 
+    @Bean
+    @ConditionalOnMissingBean(name = "redisValueSerializer")
+    public RedisSerializer<Object> redisValueSerializer(
+            ResourceLoader resourceLoader,
+            ObjectProvider<ValueCodec> valueCodecs,
+            ResilientRedisMetrics resilientRedisMetrics) {
+        ResilientRedisProperties.Serialization serialization = resilientRedisProperties.getSerialization();
+        ClassLoader classLoader = resourceLoader.getClassLoader();
+        // Every known codec stays readable, only the configured one is used for writing
+        List<ValueCodec> readCodecs = new ArrayList<>();
+        readCodecs.add(new BinaryValueCodec(classLoader));
+        valueCodecs.orderedStream().forEach(readCodecs::add);
+        VersionedRedisSerializer serializer = new VersionedRedisSerializer(
+                writeCodec(serialization.getCodec(), readCodecs, classLoader),
+                readCodecs,
+                classLoader,
+                serialization.getInitialBufferSize(),
+                serialization.getMaxPooledBufferSize());
+        // Always wrapped so values compressed earlier stay readable after compression is disabled
+        ResilientRedisProperties.Compression compression = resilientRedisProperties.getCompression();
+        return new CompressingRedisSerializer(
+                serializer,
+                compression.isEnabled() ? compressionAlgorithm(compression.getAlgorithm()) : null,
+                compression.getLevel(),
+                compression.getThresholdBytes(),
+                compression.getMaxDecompressedBytes(),
+                resilientRedisMetrics);
+    }
+
+    private String compressionAlgorithm(String algorithm) {
+        if ("zstd".equalsIgnoreCase(algorithm) && !CompressingRedisSerializer.isZstdAvailable()) {
+            log.warn("com.github.luben:zstd-jni is not on the classpath, compressing values with deflate instead");
+            return "deflate";
+        }
+        return algorithm;
+    }
+
+    private ValueCodec writeCodec(String codec, List<ValueCodec> readCodecs, ClassLoader classLoader) {
+        if (codec == null || "jdk".equalsIgnoreCase(codec)) {
+            return null;
+        }
+        if ("binary".equalsIgnoreCase(codec)) {
+            return readCodecs.get(0);
+        }
+        for (ValueCodec candidate : readCodecs) {
+            if (candidate.getClass().getName().equals(codec)) {
+                return candidate;
+            }
+        }
+        try {
+            Class<?> codecClass = ClassUtils.forName(codec, classLoader);
+            return (ValueCodec) BeanUtils.instantiateClass(codecClass);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IllegalStateException("redis.serialization.codec must be jdk, binary or a ValueCodec class name, was " + codec, e);
+        }
+    }
+
     @Bean
     @ConditionalOnMissingBean(name = "resilientRedisMetrics")
     public ResilientRedisMetrics resilientRedisMetrics(MeterRegistry meterRegistry) {
-        return new ResilientRedisMetrics(meterRegistry);
+        ResilientRedisProperties.Metrics metrics = resilientRedisProperties.getMetrics();
+        return new ResilientRedisMetrics(
+                meterRegistry,
+                metrics.getSloBuckets(),
+                metrics.isPercentileHistogram(),
+                metrics.getLatencySampleRate());
     }
 
     @Bean
@@ -128,7 +367,7 @@ public class ResilientRedisConfig {
         if (!cb.isEnabled()) {
             return null;
         }
-        return new CircuitBreakerManager(
+        CircuitBreakerManager circuitBreakerManager = new CircuitBreakerManager(
                 cb.getFailureRateThreshold(),
                 cb.getSlowCallRateThreshold(),
                 cb.getSlowCallDurationThreshold(),
@@ -137,49 +376,365 @@ public class ResilientRedisConfig {
                 cb.getSlidingWindowSize(),
                 cb.getMinimumCalls()
         );
+        circuitBreakerManager.setPerName(cb.isPerOperation());
+        return circuitBreakerManager;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "bulkheadManager")
+    public BulkheadManager bulkheadManager(ResilientRedisMetrics resilientRedisMetrics) {
+        ResilientRedisProperties.Bulkhead bulkhead = resilientRedisProperties.getBulkhead();
+        if (!bulkhead.isEnabled()) {
+            return null;
+        }
+        return new BulkheadManager(
+                bulkhead.getMaxConcurrentCalls(),
+                bulkhead.getMaxConcurrentCallsByName(),
+                bulkhead.getMaxWaitDuration(),
+                resilientRedisMetrics);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "concurrencyLimiter")
+    public AdaptiveConcurrencyLimiter concurrencyLimiter(ResilientRedisMetrics resilientRedisMetrics) {
+        ResilientRedisProperties.ConcurrencyLimit limit = resilientRedisProperties.getConcurrencyLimit();
+        if (!limit.isEnabled()) {
+            return null;
+        }
+        return new AdaptiveConcurrencyLimiter(
+                limit.getInitialLimit(),
+                limit.getMinLimit(),
+                limit.getMaxLimit(),
+                limit.getSmoothing(),
+                limit.getRttTolerance(),
+                limit.getLongWindow(),
+                resilientRedisMetrics);
     }
 
     @Bean
     @ConditionalOnMissingBean(name = "retryManager")
-    public RetryManager retryManager() {
+    public RetryManager retryManager(ObjectProvider<RetryBudget> retryBudget) {
         ResilientRedisProperties.Retry retry = resilientRedisProperties.getRetryConfig();
         if (!retry.isEnabled()) {
             return null;
         }
-        return new RetryManager(
+        RetryManager retryManager = new RetryManager(
                 retry.getMaxAttempts(),
                 retry.getWaitDuration(),
+                retry.getMaxWaitDuration(),
                 retry.getMaxRetryDuration()
         );
+        retryManager.setRetryBudget(retryBudget.getIfAvailable());
+        return retryManager;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "retryBudget")
+    public RetryBudget retryBudget(ResilientRedisMetrics resilientRedisMetrics) {
+        ResilientRedisProperties.Retry retry = resilientRedisProperties.getRetryConfig();
+        if (!retry.isEnabled() || !retry.isBudgetEnabled()) {
+            return null;
+        }
+        return new RetryBudget(
+                retry.getBudgetRatio(),
+                retry.getBudgetMinRetriesPerSecond(),
+                retry.getBudgetWindow(),
+                resilientRedisMetrics
+        );
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "nearCache")
+    public NearCache<String, Object> nearCache(ResilientRedisMetrics resilientRedisMetrics) {
+        ResilientRedisProperties.NearCache nearCache = resilientRedisProperties.getNearCache();
+        if (!nearCache.isEnabled()) {
+            return null;
+        }
+        return new NearCache<>(nearCache.getMaximumSize(), nearCache.getExpireAfterWrite(), resilientRedisMetrics);
+    }
+
+    @Bean
+    @SuppressWarnings("unchecked")
+    @ConditionalOnMissingBean(name = "nearCacheInvalidator")
+    public NearCacheInvalidator<String> nearCacheInvalidator(
+            LettuceConnectionFactory connectionFactory,
+            RedisTemplate<String, Object> redisTemplate,
+            ObjectProvider<NearCache<String, Object>> nearCache) {
+        NearCache<String, Object> cache = nearCache.getIfAvailable();
+        if (cache == null || !resilientRedisProperties.getNearCache().isTracking()) {
+            return null;
+        }
+        if (isClusterMode()) {
+            log.warn("Near cache tracking is not supported in cluster mode, entries expire after {}",
+                    resilientRedisProperties.getNearCache().getExpireAfterWrite());
+            return null;
+        }
+        RedisURI redisURI = isSentinelMode()
+                ? sentinelUri()
+                : RedisURI.Builder
+                .redis(resilientRedisProperties.getMaster().getHost(), resilientRedisProperties.getMaster().getPort())
+                .withTimeout(resilientRedisProperties.getTimeout())
+                .build();
+        NearCacheInvalidator<String> invalidator = new NearCacheInvalidator<>(
+                (RedisClient) connectionFactory.getRequiredNativeClient(),
+                redisURI,
+                cache,
+                (RedisSerializer<String>) redisTemplate.getKeySerializer(),
+                resilientRedisProperties.getNearCache().getTrackingPrefixes());
+        invalidator.start();
+        return invalidator;
+    }
+
+    private RedisURI sentinelUri() {
+        RedisProperties.Sentinel sentinel = resilientRedisProperties.getSentinel();
+        RedisURI.Builder builder = null;
+        for (String node : sentinel.getNodes()) {
+            int separator = node.lastIndexOf(':');
+            String host = node.substring(0, separator);
+            int port = Integer.parseInt(node.substring(separator + 1));
+            if (builder == null) {
+                builder = RedisURI.Builder.sentinel(host, port, sentinel.getMaster());
+            } else {
+                builder.withSentinel(host, port);
+            }
+        }
+        if (builder == null) {
+            throw new IllegalStateException("spring.redis.sentinel.nodes must not be empty");
+        }
+        if (resilientRedisProperties.getPassword() != null) {
+            builder.withPassword(resilientRedisProperties.getPassword().toCharArray());
+        }
+        return builder.withTimeout(resilientRedisProperties.getTimeout()).build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "lastKnownGoodStore")
+    public LastKnownGoodStore lastKnownGoodStore(ResilientRedisMetrics resilientRedisMetrics) {
+        if (!resilientRedisProperties.isFallbackEnabled()) {
+            return null;
+        }
+        return new LastKnownGoodStore(
+                resilientRedisProperties.getFallbackMaxBytes(),
+                resilientRedisProperties.getFallbackMaxStaleness(),
+                resilientRedisProperties.getFallbackDefaultEntryBytes(),
+                resilientRedisMetrics);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "earlyRefresher")
+    public EarlyRefresher earlyRefresher(ResilientRedisMetrics resilientRedisMetrics) {
+        ResilientRedisProperties.EarlyRefresh earlyRefresh = resilientRedisProperties.getEarlyRefresh();
+        if (!earlyRefresh.isEnabled()) {
+            return null;
+        }
+        return new EarlyRefresher(
+                earlyRefresh.getBeta(),
+                earlyRefresh.getThreads(),
+                earlyRefresh.getQueueCapacity(),
+                resilientRedisMetrics);
     }
 
     @Bean
     public ResilientRedisTemplate<String, Object> resilientRedisTemplate(
             RedisTemplate<String, Object> redisTemplate,
-            CircuitBreakerManager circuitBreakerManager,
-            RetryManager retryManager,
-            ResilientRedisMetrics resilientRedisMetrics) {
-        return new ResilientRedisTemplate<>(redisTemplate, circuitBreakerManager, retryManager, resilientRedisMetrics);
+            ObjectProvider<CircuitBreakerManager> circuitBreakerManager,
+            ObjectProvider<RetryManager> retryManager,
+            ResilientRedisMetrics resilientRedisMetrics,
+            ObjectProvider<NearCache<String, Object>> nearCache,
+            ObjectProvider<LastKnownGoodStore> lastKnownGoodStore,
+            ObjectProvider<EarlyRefresher> earlyRefresher,
+            ObjectProvider<BulkheadManager> bulkheadManager,
+            ObjectProvider<AdaptiveConcurrencyLimiter> concurrencyLimiter,
+            ObjectProvider<HedgedReader<String, Object>> hedgedReader,
+            ObjectProvider<ClusterSlotRouter> clusterSlotRouter,
+            ObjectProvider<HotKeyDetector> hotKeyDetector) {
+        ResilientRedisTemplate<String, Object> template = new ResilientRedisTemplate<>(
+                redisTemplate,
+                circuitBreakerManager.getIfAvailable(),
+                retryManager.getIfAvailable(),
+                resilientRedisMetrics);
+        template.setNearCache(nearCache.getIfAvailable());
+        template.setLastKnownGood(lastKnownGoodStore.getIfAvailable());
+        template.setEarlyRefresher(earlyRefresher.getIfAvailable());
+        template.setBulkheadManager(bulkheadManager.getIfAvailable());
+        template.setConcurrencyLimiter(concurrencyLimiter.getIfAvailable());
+        template.setHedgedReader(hedgedReader.getIfAvailable());
+        template.setClusterSlotRouter(clusterSlotRouter.getIfAvailable());
+        ResilientRedisProperties.HotKeys hotKeys = resilientRedisProperties.getHotKeys();
+        template.setHotKeyDetection(
+                hotKeyDetector.getIfAvailable(),
+                hotKeys.isPin() ? new NearCache<>(hotKeys.getPinMaxKeys(), hotKeys.getPinTtl(), null) : null);
+        if (isSharedConnectionMode() && redisTemplate.getConnectionFactory() instanceof LettuceConnectionFactory) {
+            template.setSharedConnectionPipeline(new SharedConnectionPipeline(
+                    (LettuceConnectionFactory) redisTemplate.getConnectionFactory(),
+                    resilientRedisProperties.getTimeout()));
+        }
+        template.setBulkChunkSize(resilientRedisProperties.getBulkChunkSize());
+        ResilientRedisProperties.GetBatching getBatching = resilientRedisProperties.getGetBatching();
+        if (getBatching.isEnabled()) {
+            template.setGetBatching(getBatching.getMaxBatchSize(), getBatching.getWindow());
+        }
+        ResilientRedisProperties.WriteBehind writeBehind = resilientRedisProperties.getWriteBehind();
+        if (writeBehind.isEnabled()) {
+            template.setWriteBehind(new WriteBehindBuffer<>(
+                    writeBehind.getMaxPendingKeys(),
+                    writeBehind.getBatchSize(),
+                    writeBehind.getFlushInterval(),
+                    writeBehind.getOverflowPolicy(),
+                    writeBehind.getMaxBlock(),
+                    writeBehind.getShutdownTimeout(),
+                    resilientRedisMetrics));
+        }
+        template.setClearScanCount(resilientRedisProperties.getClear().getScanCount());
+        template.setClearBatchSize(resilientRedisProperties.getClear().getBatchSize());
+        template.setClearMaxKeysPerSecond(resilientRedisProperties.getClear().getMaxKeysPerSecond());
+        return template;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "hotKeyDetector")
+    public HotKeyDetector hotKeyDetector(ResilientRedisMetrics resilientRedisMetrics) {
+        ResilientRedisProperties.HotKeys hotKeys = resilientRedisProperties.getHotKeys();
+        if (!hotKeys.isEnabled()) {
+            return null;
+        }
+        return new HotKeyDetector(
+                hotKeys.getSampleRate(),
+                hotKeys.getSketchWidth(),
+                hotKeys.getSketchDepth(),
+                hotKeys.getTopK(),
+                hotKeys.getWindow(),
+                hotKeys.getHotRate(),
+                resilientRedisMetrics);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "connectionWarmer")
+    public ConnectionWarmer connectionWarmer(
+            LettuceConnectionFactory connectionFactory,
+            ResilientRedisTemplate<String, Object> resilientRedisTemplate) {
+        ResilientRedisProperties.WarmUp warmUp = resilientRedisProperties.getWarmUp();
+        if (!warmUp.isEnabled()) {
+            return null;
+        }
+        // No pool in shared mode, the shared connection is all there is to open
+        int connections = isSharedConnectionMode()
+                ? 0
+                : Math.max(1, resilientRedisProperties.getLettuce().getPool().getMinIdle());
+        return new ConnectionWarmer(
+                connectionFactory,
+                connections,
+                resilientRedisTemplate,
+                warmUp.getKeys(),
+                warmUp.getTimeout());
+    }
+
+    @Bean
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(
+            LettuceConnectionFactory connectionFactory,
+            RedisTemplate<String, Object> redisTemplate) {
+        return new ReactiveRedisTemplate<>(connectionFactory, serializationContext(redisTemplate));
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializationContext<String, Object> serializationContext(RedisTemplate<String, Object> redisTemplate) {
+        return RedisSerializationContext
+                .<String, Object>newSerializationContext(redisTemplate.getDefaultSerializer())
+                .key((RedisSerializer<String>) redisTemplate.getKeySerializer())
+                .value((RedisSerializer<Object>) redisTemplate.getValueSerializer())
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "hedgedReader")
+    public HedgedReader<String, Object> hedgedReader(
+            ReactiveRedisTemplate<String, Object> reactiveRedisTemplate,
+            RedisTemplate<String, Object> redisTemplate,
+            ResilientRedisMetrics resilientRedisMetrics,
+            CommandTimeouts commandTimeouts) {
+        ResilientRedisProperties.Hedge hedge = resilientRedisProperties.getHedge();
+        if (!hedge.isEnabled() || Boolean.TRUE != resilientRedisProperties.getReplica().getEnabled()
+                || isClusterMode() || isSentinelMode()) {
+            return null;
+        }
+        // Own factory pinned to the master; not a bean so RedisConnectionFactory injection stays unambiguous
+        LettuceConnectionFactory masterConnectionFactory =
+                connectionFactory(new LettuceConnectionFactory(masterConfiguration(), clientConfiguration(ReadFrom.MASTER, null, commandTimeouts)));
+        masterConnectionFactory.afterPropertiesSet();
+        return new HedgedReader<>(
+                reactiveRedisTemplate,
+                new ReactiveRedisTemplate<>(masterConnectionFactory, serializationContext(redisTemplate)),
+                hedge.getPercentile(),
+                hedge.getMinDelay(),
+                hedge.getMaxDelay(),
+                hedge.getMaxRatio(),
+                resilientRedisMetrics,
+                masterConnectionFactory::destroy);
+    }
+
+    @Bean
+    public ResilientAsyncRedisTemplate<String, Object> resilientAsyncRedisTemplate(
+            ReactiveRedisTemplate<String, Object> reactiveRedisTemplate,
+            ObjectProvider<CircuitBreakerManager> circuitBreakerManager,
+            ObjectProvider<RetryManager> retryManager,
+            ResilientRedisMetrics resilientRedisMetrics,
+            ObjectProvider<BulkheadManager> bulkheadManager) {
+        ResilientAsyncRedisTemplate<String, Object> template = new ResilientAsyncRedisTemplate<>(
+                reactiveRedisTemplate,
+                circuitBreakerManager.getIfAvailable(),
+                retryManager.getIfAvailable(),
+                resilientRedisMetrics);
+        template.setBulkheadManager(bulkheadManager.getIfAvailable());
+        return template;
     }
 
     @Bean
     @ConditionalOnMissingBean(CacheManager.class)
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(
+            RedisConnectionFactory connectionFactory,
+            RedisSerializer<Object> redisValueSerializer,
+            ObjectProvider<RetryManager> retryManager,
+            ObjectProvider<LastKnownGoodStore> lastKnownGoodStore,
+            ObjectProvider<EarlyRefresher> earlyRefresher,
+            ResilientRedisMetrics resilientRedisMetrics,
+            ObjectProvider<CircuitBreakerManager> circuitBreakerManager,
+            ObjectProvider<BulkheadManager> bulkheadManager,
+            ObjectProvider<HotKeyDetector> hotKeyDetector) {
         Map<String, RedisCacheConfiguration> map = new HashMap<>();
-        return new ResilientRedisCacheManager(
+        ResilientRedisCacheManager cacheManager = new ResilientRedisCacheManager(
                 RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, BatchStrategies.scan(resilientRedisProperties.getBatchSize())),
-                RedisCacheConfiguration.defaultCacheConfig(),
+                RedisCacheConfiguration.defaultCacheConfig()
+                        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(redisValueSerializer)),
                 map
         );
+        cacheManager.setConnectionFactory(connectionFactory);
+        if (isSharedConnectionMode() && connectionFactory instanceof LettuceConnectionFactory) {
+            cacheManager.setSharedConnectionPipeline(new SharedConnectionPipeline(
+                    (LettuceConnectionFactory) connectionFactory,
+                    resilientRedisProperties.getTimeout()));
+        }
+        cacheManager.setRetryManager(retryManager.getIfAvailable());
+        cacheManager.setLastKnownGood(lastKnownGoodStore.getIfAvailable());
+        cacheManager.setMetrics(resilientRedisMetrics);
+        cacheManager.setEarlyRefresher(earlyRefresher.getIfAvailable());
+        cacheManager.setCircuitBreakerManager(circuitBreakerManager.getIfAvailable());
+        cacheManager.setBulkheadManager(bulkheadManager.getIfAvailable());
+        cacheManager.setHotKeyDetector(hotKeyDetector.getIfAvailable());
+        return cacheManager;
     }
 
     @EventListener(ApplicationReadyEvent.class)
     private void init() {
-        log.info("Running {} version {} with replica={}, circuitBreaker={}, retry={}",
+        log.info("Running {} version {} with topology={}, connection={}, replica={}, circuitBreaker={}, bulkhead={}, retry={}, nearCache={}, fallback={}",
                 projectId,
                 projectVersion,
+                topology(),
+                resilientRedisProperties.getConnection().getMode(),
                 resilientRedisProperties.getReplica().getEnabled(),
                 resilientRedisProperties.getCircuitBreakerConfig().isEnabled(),
-                resilientRedisProperties.getRetryConfig().isEnabled());
+                resilientRedisProperties.getBulkhead().isEnabled(),
+                resilientRedisProperties.getRetryConfig().isEnabled(),
+                resilientRedisProperties.getNearCache().isEnabled(),
+                resilientRedisProperties.isFallbackEnabled());
     }
 }
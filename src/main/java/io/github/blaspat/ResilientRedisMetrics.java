@@ -16,25 +16,140 @@
 
 package io.github.blaspat;
 
+import io.github.resilience4j.bulkhead.Bulkhead;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 
+/**
+ * Micrometer meters for the resilient templates. Hit, miss and latency meters are registered per
+ * {@link RedisOperation} at construction so the hot path records without lookups or allocation; meters for optional
+ * features are created on first use. Latency is measured in nanoseconds and can be sampled, in which case the
+ * {@code redis.latency} count covers sampled calls only while hit and miss counters stay exact.
+ */
 public class ResilientRedisMetrics {
 
+    public static final long NOT_SAMPLED = Long.MIN_VALUE;
+    public static final List<Duration> DEFAULT_SLO_BUCKETS = Arrays.asList(
+            Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25),
+            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+            Duration.ofSeconds(1));
+
+    private static final int MAX_HOT_KEY_LENGTH = 128;
+
     private final MeterRegistry registry;
+    private final Duration[] sloBuckets;
+    private final boolean percentileHistogram;
+    private final double latencySampleRate;
+    private final OperationMeters[] operations;
     private final ConcurrentHashMap<String, Counter> cacheHits = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Counter> cacheMisses = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Counter> errors = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Counter>> errors = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Counter> fallbacks = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Timer> latencies = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> nearCacheInvalidations = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> cacheLoads = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> earlyRefreshes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> hedges = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> writeBehindWrites = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> hotKeyRates = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Gauge> hotKeyGauges = new ConcurrentHashMap<>();
+    private volatile Counter retryBudgetRejections;
+    private volatile Counter concurrencyLimitRejections;
+    private volatile DistributionSummary compressionRatio;
+    private volatile Timer compressionTime;
+    private volatile Timer decompressionTime;
+    private volatile Counter compressionSkipped;
+    private volatile Timer writeBehindFlush;
+    private volatile DistributionSummary getBatchSize;
+    private volatile Timer getBatchWait;
+    private volatile Counter hotKeysDetected;
+    private volatile DistributionSummary writeBehindBatchSize;
 
     public ResilientRedisMetrics(MeterRegistry registry) {
+        this(registry, DEFAULT_SLO_BUCKETS, false, 1.0);
+    }
+
+    public ResilientRedisMetrics(
+            MeterRegistry registry,
+            List<Duration> sloBuckets,
+            boolean percentileHistogram,
+            double latencySampleRate) {
         this.registry = registry;
+        this.sloBuckets = sloBuckets.toArray(new Duration[0]);
+        this.percentileHistogram = percentileHistogram;
+        this.latencySampleRate = latencySampleRate;
+        RedisOperation[] values = RedisOperation.values();
+        this.operations = new OperationMeters[values.length];
+        for (RedisOperation operation : values) {
+            operations[operation.ordinal()] = new OperationMeters(operation.tag());
+        }
+    }
+
+    public void recordHit(RedisOperation operation) {
+        operations[operation.ordinal()].hits.increment();
+    }
+
+    public void recordMiss(RedisOperation operation) {
+        operations[operation.ordinal()].misses.increment();
+    }
+
+    public void recordError(RedisOperation operation, Throwable error) {
+        operations[operation.ordinal()].errors.computeIfAbsent(error.getClass(), k ->
+                Counter.builder("redis.error")
+                        .tag("operation", operation.tag())
+                        .tag("error", k.getSimpleName())
+                        .description("Redis error count")
+                        .register(registry))
+                .increment();
+    }
+
+    public void recordFallback(RedisOperation operation) {
+        operations[operation.ordinal()].fallbacks().increment();
+    }
+
+    public void recordStaleServe(RedisOperation operation) {
+        operations[operation.ordinal()].staleServes().increment();
+    }
+
+    public void recordNearCacheHit(RedisOperation operation) {
+        operations[operation.ordinal()].nearCacheHits().increment();
+    }
+
+    public void recordNearCacheMiss(RedisOperation operation) {
+        operations[operation.ordinal()].nearCacheMisses().increment();
+    }
+
+    /**
+     * Returns the start timestamp to pass to {@link #stopTimer}, or {@link #NOT_SAMPLED} when this call is not
+     * sampled.
+     */
+    public long startTimer() {
+        if (latencySampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= latencySampleRate) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    public void stopTimer(RedisOperation operation, long startNanos) {
+        if (startNanos != NOT_SAMPLED) {
+            operations[operation.ordinal()].latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
     }
 
     public void recordHit(String operation) {
@@ -56,12 +171,13 @@ public class ResilientRedisMetrics {
     }
 
     public void recordError(String operation, String errorType) {
-        errors.computeIfAbsent(operation + "_" + errorType, k ->
-                Counter.builder("redis.error")
-                        .tag("operation", operation)
-                        .tag("error", errorType)
-                        .description("Redis error count")
-                        .register(registry))
+        errors.computeIfAbsent(operation, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(errorType, k ->
+                        Counter.builder("redis.error")
+                                .tag("operation", operation)
+                                .tag("error", errorType)
+                                .description("Redis error count")
+                                .register(registry))
                 .increment();
     }
 
@@ -75,16 +191,261 @@ public class ResilientRedisMetrics {
     }
 
     public void recordLatency(String operation, long durationMs) {
-        latencies.computeIfAbsent(operation, k ->
-                Timer.builder("redis.latency")
-                        .tag("operation", operation)
-                        .description("Redis operation latency")
+        latencies.computeIfAbsent(operation, this::latencyTimer).record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordNearCacheInvalidation(String source) {
+        nearCacheInvalidations.computeIfAbsent(source, k ->
+                Counter.builder("redis.nearcache.invalidation")
+                        .tag("source", source)
+                        .description("Redis near cache invalidation count")
+                        .register(registry))
+                .increment();
+    }
+
+    public void recordCacheLoad(String cacheName, boolean coalesced) {
+        String type = coalesced ? "coalesced" : "leader";
+        cacheLoads.computeIfAbsent(cacheName + "_" + type, k ->
+                Counter.builder("redis.cache.load")
+                        .tag("cache", cacheName)
+                        .tag("type", type)
+                        .description("Value loader calls, split into loader runs and callers coalesced onto one")
+                        .register(registry))
+                .increment();
+    }
+
+    public void recordEarlyRefresh(String outcome) {
+        earlyRefreshes.computeIfAbsent(outcome, k ->
+                Counter.builder("redis.early.refresh")
+                        .tag("outcome", outcome)
+                        .description("Probabilistic early refreshes scheduled or rejected")
                         .register(registry))
-                .record(durationMs, TimeUnit.MILLISECONDS);
+                .increment();
+    }
+
+    public void recordHedge(String outcome) {
+        hedges.computeIfAbsent(outcome, k ->
+                Counter.builder("redis.hedge")
+                        .tag("outcome", outcome)
+                        .description("Hedged replica reads sent to the master, won by the master or rejected by the hedge cap")
+                        .register(registry))
+                .increment();
+    }
+
+    /**
+     * Registers latency and health gauges for a replica and returns its selection counter.
+     */
+    public <T> Counter registerReplicaNode(String node, T state, ToDoubleFunction<T> latencyMillis, ToDoubleFunction<T> healthy) {
+        Gauge.builder("redis.replica.latency", state, latencyMillis)
+                .tag("node", node)
+                .baseUnit("milliseconds")
+                .description("Smoothed replica latency used for read routing")
+                .register(registry);
+        Gauge.builder("redis.replica.healthy", state, healthy)
+                .tag("node", node)
+                .description("1 while the replica receives reads, 0 while it is ejected")
+                .register(registry);
+        return Counter.builder("redis.replica.selected")
+                .tag("node", node)
+                .description("Reads routed to the replica as first choice")
+                .register(registry);
+    }
+
+    public void registerRetryBudget(RetryBudget retryBudget) {
+        Gauge.builder("redis.retry.budget.utilization", retryBudget, RetryBudget::utilization)
+                .description("Share of the retry budget spent in the current window")
+                .register(registry);
+        Gauge.builder("redis.retry.budget.available", retryBudget, RetryBudget::availableRetries)
+                .description("Retries still allowed in the current window")
+                .register(registry);
+        retryBudgetRejections = Counter.builder("redis.retry.budget.rejected")
+                .description("Retries rejected because the retry budget was exhausted")
+                .register(registry);
+    }
+
+    public void registerConcurrencyLimiter(AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("redis.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on in-flight Redis commands")
+                .register(registry);
+        Gauge.builder("redis.limiter.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Redis commands currently in flight through the adaptive limiter")
+                .register(registry);
+        concurrencyLimitRejections = Counter.builder("redis.limiter.rejected")
+                .description("Calls rejected because the adaptive concurrency limit was reached")
+                .register(registry);
+    }
+
+    public void recordConcurrencyLimitRejection() {
+        Counter counter = concurrencyLimitRejections;
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    public void registerBulkhead(Bulkhead bulkhead) {
+        Gauge.builder("redis.bulkhead.available", bulkhead, b -> b.getMetrics().getAvailableConcurrentCalls())
+                .tag("name", bulkhead.getName())
+                .description("Concurrent calls still permitted by the bulkhead")
+                .register(registry);
+        Counter rejections = Counter.builder("redis.bulkhead.rejected")
+                .tag("name", bulkhead.getName())
+                .description("Calls rejected because the bulkhead was full")
+                .register(registry);
+        bulkhead.getEventPublisher().onCallRejected(event -> rejections.increment());
+    }
+
+    public void registerCompression() {
+        compressionRatio = DistributionSummary.builder("redis.compression.ratio")
+                .description("Original size divided by stored size of compressed values")
+                .register(registry);
+        compressionTime = Timer.builder("redis.compression.time")
+                .tag("phase", "compress")
+                .description("Thread CPU time spent compressing values")
+                .register(registry);
+        decompressionTime = Timer.builder("redis.compression.time")
+                .tag("phase", "decompress")
+                .description("Thread CPU time spent decompressing values")
+                .register(registry);
+        compressionSkipped = Counter.builder("redis.compression.skipped")
+                .description("Values above the threshold stored uncompressed because they did not shrink")
+                .register(registry);
+    }
+
+    public void recordCompression(int originalBytes, int storedBytes, long cpuNanos) {
+        DistributionSummary ratio = compressionRatio;
+        if (ratio != null) {
+            ratio.record((double) originalBytes / storedBytes);
+            compressionTime.record(cpuNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordDecompression(long cpuNanos) {
+        Timer timer = decompressionTime;
+        if (timer != null) {
+            timer.record(cpuNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordCompressionSkipped() {
+        Counter counter = compressionSkipped;
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    public void registerWriteBehind(WriteBehindBuffer<?, ?> buffer) {
+        Gauge.builder("redis.writebehind.pending", buffer, WriteBehindBuffer::pendingCount)
+                .description("Keys waiting in the write-behind buffer")
+                .register(registry);
+        writeBehindFlush = Timer.builder("redis.writebehind.flush")
+                .description("Time to write one write-behind batch to Redis")
+                .serviceLevelObjectives(sloBuckets)
+                .register(registry);
+        writeBehindBatchSize = DistributionSummary.builder("redis.writebehind.batch.size")
+                .description("Keys per write-behind batch")
+                .register(registry);
+    }
+
+    public void recordWriteBehind(String outcome) {
+        writeBehindWrites.computeIfAbsent(outcome, k ->
+                Counter.builder("redis.writebehind.writes")
+                        .tag("outcome", outcome)
+                        .description("Writes buffered, coalesced into a pending write of the same key, or dropped on overflow")
+                        .register(registry))
+                .increment();
+    }
+
+    public void recordWriteBehindFlush(int keys, long durationNanos) {
+        Timer timer = writeBehindFlush;
+        if (timer != null) {
+            timer.record(durationNanos, TimeUnit.NANOSECONDS);
+            writeBehindBatchSize.record(keys);
+        }
+    }
+
+    public void registerCommandTimeouts(CommandTimeouts timeouts) {
+        for (CommandTimeouts.Kind kind : CommandTimeouts.Kind.values()) {
+            Gauge.builder("redis.command.timeout", timeouts, t -> t.currentTimeout(kind).toNanos() / 1_000_000.0)
+                    .description("Timeout currently applied to commands of this kind")
+                    .baseUnit("milliseconds")
+                    .tag("operation", kind.name().toLowerCase())
+                    .register(registry);
+        }
+    }
+
+    public void registerHotKeys() {
+        hotKeysDetected = Counter.builder("redis.hotkey.detected")
+                .description("Keys that crossed the hot-key rate")
+                .register(registry);
+    }
+
+    public void recordHotKeyDetected() {
+        Counter counter = hotKeysDetected;
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * Publishes one {@code redis.hotkey.rate} gauge per current top key and removes the gauges of keys that dropped
+     * out, so the number of series stays bounded by the top-K size.
+     */
+    public void recordHotKeys(List<HotKeyDetector.HotKey> top) {
+        Set<String> current = new HashSet<>();
+        for (HotKeyDetector.HotKey hotKey : top) {
+            String key = String.valueOf(hotKey.getKey());
+            if (key.length() > MAX_HOT_KEY_LENGTH) {
+                key = key.substring(0, MAX_HOT_KEY_LENGTH);
+            }
+            current.add(key);
+            hotKeyRates.computeIfAbsent(key, k -> {
+                AtomicLong rate = new AtomicLong();
+                hotKeyGauges.put(k, Gauge.builder("redis.hotkey.rate", rate, AtomicLong::get)
+                        .description("Estimated accesses per second of a current top key")
+                        .tag("key", k)
+                        .register(registry));
+                return rate;
+            }).set(Math.round(hotKey.getRate()));
+        }
+        for (String key : new ArrayList<>(hotKeyRates.keySet())) {
+            if (!current.contains(key)) {
+                hotKeyRates.remove(key);
+                Gauge gauge = hotKeyGauges.remove(key);
+                if (gauge != null) {
+                    registry.remove(gauge);
+                }
+            }
+        }
+    }
+
+    public void registerGetBatcher() {
+        getBatchSize = DistributionSummary.builder("redis.batch.size")
+                .description("Concurrent single-key reads sent together as one MGET")
+                .serviceLevelObjectives(1, 2, 4, 8, 16, 32, 64, 128)
+                .register(registry);
+        getBatchWait = Timer.builder("redis.batch.wait")
+                .description("Time a read batch was held open collecting reads")
+                .serviceLevelObjectives(sloBuckets)
+                .register(registry);
+    }
+
+    public void recordGetBatch(int size, long waitNanos) {
+        DistributionSummary summary = getBatchSize;
+        if (summary != null) {
+            summary.record(size);
+            getBatchWait.record(waitNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordRetryBudgetRejection() {
+        Counter counter = retryBudgetRejections;
+        if (counter != null) {
+            counter.increment();
+        }
     }
 
     public <T> T record(String operation, Supplier<T> supplier) {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             T result = supplier.get();
             recordHit(operation);
@@ -93,12 +454,12 @@ public class ResilientRedisMetrics {
             recordError(operation, e.getClass().getSimpleName());
             throw e;
         } finally {
-            recordLatency(operation, System.currentTimeMillis() - start);
+            latencies.computeIfAbsent(operation, this::latencyTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     public void record(String operation, Runnable runnable) {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             runnable.run();
             recordHit(operation);
@@ -106,7 +467,76 @@ public class ResilientRedisMetrics {
             recordError(operation, e.getClass().getSimpleName());
             throw e;
         } finally {
-            recordLatency(operation, System.currentTimeMillis() - start);
+            latencies.computeIfAbsent(operation, this::latencyTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer latencyTimer(String operation) {
+        return Timer.builder("redis.latency")
+                .tag("operation", operation)
+                .description("Redis operation latency")
+                .serviceLevelObjectives(sloBuckets)
+                .publishPercentileHistogram(percentileHistogram)
+                .register(registry);
+    }
+
+    private Counter counter(String name, String operation, String description) {
+        return Counter.builder(name)
+                .tag("operation", operation)
+                .description(description)
+                .register(registry);
+    }
+
+    private final class OperationMeters {
+        private final String operation;
+        private final Counter hits;
+        private final Counter misses;
+        private final Timer latency;
+        private final ConcurrentHashMap<Class<?>, Counter> errors = new ConcurrentHashMap<>();
+        // Registration is idempotent, so a racing first use at worst resolves the same meter twice
+        private volatile Counter fallbacks;
+        private volatile Counter staleServes;
+        private volatile Counter nearCacheHits;
+        private volatile Counter nearCacheMisses;
+
+        private OperationMeters(String operation) {
+            this.operation = operation;
+            this.hits = counter("redis.cache.hit", operation, "Redis cache hit count");
+            this.misses = counter("redis.cache.miss", operation, "Redis cache miss count");
+            this.latency = latencyTimer(operation);
+        }
+
+        private Counter fallbacks() {
+            Counter counter = fallbacks;
+            if (counter == null) {
+                counter = fallbacks = counter("redis.fallback", operation, "Redis fallback activation count");
+            }
+            return counter;
+        }
+
+        private Counter staleServes() {
+            Counter counter = staleServes;
+            if (counter == null) {
+                counter = staleServes = counter("redis.stale.serve", operation,
+                        "Values served from the last-known-good store while Redis was unavailable");
+            }
+            return counter;
+        }
+
+        private Counter nearCacheHits() {
+            Counter counter = nearCacheHits;
+            if (counter == null) {
+                counter = nearCacheHits = counter("redis.nearcache.hit", operation, "Redis near cache hit count");
+            }
+            return counter;
+        }
+
+        private Counter nearCacheMisses() {
+            Counter counter = nearCacheMisses;
+            if (counter == null) {
+                counter = nearCacheMisses = counter("redis.nearcache.miss", operation, "Redis near cache miss count");
+            }
+            return counter;
         }
     }
 }
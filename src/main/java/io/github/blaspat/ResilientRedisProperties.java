@@ -22,6 +22,10 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Primary
 @Component
@@ -32,13 +36,47 @@ public class ResilientRedisProperties extends RedisProperties {
     private Duration timeout;
     private Duration connectTimeout;
     private Integer batchSize;
+    private Integer bulkChunkSize;
 
     // Circuit breaker settings
     private CircuitBreaker circuitBreaker = new CircuitBreaker();
     // Retry settings
     private Retry retry = new Retry();
+    // Bulkhead settings
+    private Bulkhead bulkhead = new Bulkhead();
+    // Hedged replica read settings
+    private Hedge hedge = new Hedge();
+    // Adaptive concurrency limit settings
+    private ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
     // Fallback enabled
     private boolean fallbackEnabled = false;
+    private Duration fallbackMaxStaleness = Duration.ofMinutes(5);
+    private long fallbackMaxBytes = 64L * 1024 * 1024;
+    private int fallbackDefaultEntryBytes = 256;
+    // Near cache settings
+    private NearCache nearCache = new NearCache();
+    // clear(prefix) settings
+    private Clear clear = new Clear();
+    // Probabilistic early refresh settings
+    private EarlyRefresh earlyRefresh = new EarlyRefresh();
+    // Metrics settings
+    private Metrics metrics = new Metrics();
+    // Value serialization settings
+    private Serialization serialization = new Serialization();
+    // Value compression settings
+    private Compression compression = new Compression();
+    // Connection mode settings
+    private Connection connection = new Connection();
+    // Write-behind settings
+    private WriteBehind writeBehind = new WriteBehind();
+    // Batching of concurrent gets into MGET
+    private GetBatching getBatching = new GetBatching();
+    // Per-operation and adaptive command timeouts
+    private CommandTimeout commandTimeout = new CommandTimeout();
+    // Connection warm-up at startup
+    private WarmUp warmUp = new WarmUp();
+    // Hot-key detection settings
+    private HotKeys hotKeys = new HotKeys();
 
     @Override
     public Duration getConnectTimeout() {
@@ -87,6 +125,15 @@ public class ResilientRedisProperties extends RedisProperties {
         this.batchSize = batchSize;
     }
 
+    public Integer getBulkChunkSize() {
+        if (bulkChunkSize == null) return 100;
+        return bulkChunkSize;
+    }
+
+    public void setBulkChunkSize(Integer bulkChunkSize) {
+        this.bulkChunkSize = bulkChunkSize;
+    }
+
     public static class Master {
         private String host = "localhost";
         private Integer port = 6379;
@@ -112,6 +159,13 @@ public class ResilientRedisProperties extends RedisProperties {
         private String host = "localhost";
         private Integer port = 6379;
         private Boolean enabled = false;
+        // Additional replicas as host:port, used together with host/port
+        private List<String> nodes = new ArrayList<>();
+        private Boolean latencyRouting = true;
+        private double ewmaAlpha = 0.2;
+        private Duration probeInterval = Duration.ofSeconds(1);
+        private int ejectAfterFailures = 3;
+        private int recoverAfterSuccesses = 2;
 
         public Boolean getEnabled() {
             return enabled;
@@ -136,6 +190,54 @@ public class ResilientRedisProperties extends RedisProperties {
         public void setPort(Integer port) {
             this.port = port;
         }
+
+        public List<String> getNodes() {
+            return nodes;
+        }
+
+        public void setNodes(List<String> nodes) {
+            this.nodes = nodes;
+        }
+
+        public Boolean getLatencyRouting() {
+            return latencyRouting;
+        }
+
+        public void setLatencyRouting(Boolean latencyRouting) {
+            this.latencyRouting = latencyRouting;
+        }
+
+        public double getEwmaAlpha() {
+            return ewmaAlpha;
+        }
+
+        public void setEwmaAlpha(double ewmaAlpha) {
+            this.ewmaAlpha = ewmaAlpha;
+        }
+
+        public Duration getProbeInterval() {
+            return probeInterval;
+        }
+
+        public void setProbeInterval(Duration probeInterval) {
+            this.probeInterval = probeInterval;
+        }
+
+        public int getEjectAfterFailures() {
+            return ejectAfterFailures;
+        }
+
+        public void setEjectAfterFailures(int ejectAfterFailures) {
+            this.ejectAfterFailures = ejectAfterFailures;
+        }
+
+        public int getRecoverAfterSuccesses() {
+            return recoverAfterSuccesses;
+        }
+
+        public void setRecoverAfterSuccesses(int recoverAfterSuccesses) {
+            this.recoverAfterSuccesses = recoverAfterSuccesses;
+        }
     }
 
     public static class CircuitBreaker {
@@ -147,6 +249,7 @@ public class ResilientRedisProperties extends RedisProperties {
         private int permittedCallsInHalfOpenState = 5;
         private int slidingWindowSize = 10;
         private int minimumCalls = 5;
+        private boolean perOperation = true;
 
         public boolean isEnabled() { return enabled; }
         public void setEnabled(boolean enabled) { this.enabled = enabled; }
@@ -164,13 +267,80 @@ public class ResilientRedisProperties extends RedisProperties {
         public void setSlidingWindowSize(int slidingWindowSize) { this.slidingWindowSize = slidingWindowSize; }
         public int getMinimumCalls() { return minimumCalls; }
         public void setMinimumCalls(int minimumCalls) { this.minimumCalls = minimumCalls; }
+        public boolean isPerOperation() { return perOperation; }
+        public void setPerOperation(boolean perOperation) { this.perOperation = perOperation; }
+    }
+
+    public static class Bulkhead {
+        private boolean enabled = false;
+        private int maxConcurrentCalls = 64;
+        private Duration maxWaitDuration = Duration.ZERO;
+        private Map<String, Integer> maxConcurrentCallsByName = new HashMap<>();
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getMaxConcurrentCalls() { return maxConcurrentCalls; }
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) { this.maxConcurrentCalls = maxConcurrentCalls; }
+        public Duration getMaxWaitDuration() { return maxWaitDuration; }
+        public void setMaxWaitDuration(Duration maxWaitDuration) { this.maxWaitDuration = maxWaitDuration; }
+        public Map<String, Integer> getMaxConcurrentCallsByName() { return maxConcurrentCallsByName; }
+        public void setMaxConcurrentCallsByName(Map<String, Integer> maxConcurrentCallsByName) { this.maxConcurrentCallsByName = maxConcurrentCallsByName; }
+    }
+
+    public static class Hedge {
+        private boolean enabled = false;
+        private double percentile = 0.95;
+        private Duration minDelay = Duration.ofMillis(1);
+        private Duration maxDelay = Duration.ofMillis(50);
+        private double maxRatio = 0.1;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public double getPercentile() { return percentile; }
+        public void setPercentile(double percentile) { this.percentile = percentile; }
+        public Duration getMinDelay() { return minDelay; }
+        public void setMinDelay(Duration minDelay) { this.minDelay = minDelay; }
+        public Duration getMaxDelay() { return maxDelay; }
+        public void setMaxDelay(Duration maxDelay) { this.maxDelay = maxDelay; }
+        public double getMaxRatio() { return maxRatio; }
+        public void setMaxRatio(double maxRatio) { this.maxRatio = maxRatio; }
+    }
+
+    public static class ConcurrencyLimit {
+        private boolean enabled = false;
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 500;
+        private double smoothing = 0.2;
+        private double rttTolerance = 1.5;
+        private int longWindow = 600;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getInitialLimit() { return initialLimit; }
+        public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+        public int getMinLimit() { return minLimit; }
+        public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+        public int getMaxLimit() { return maxLimit; }
+        public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+        public double getSmoothing() { return smoothing; }
+        public void setSmoothing(double smoothing) { this.smoothing = smoothing; }
+        public double getRttTolerance() { return rttTolerance; }
+        public void setRttTolerance(double rttTolerance) { this.rttTolerance = rttTolerance; }
+        public int getLongWindow() { return longWindow; }
+        public void setLongWindow(int longWindow) { this.longWindow = longWindow; }
     }
 
     public static class Retry {
         private boolean enabled = false;
         private int maxAttempts = 3;
         private Duration waitDuration = Duration.ofMillis(200);
+        private Duration maxWaitDuration = Duration.ofSeconds(2);
         private Duration maxRetryDuration = Duration.ofSeconds(5);
+        private boolean budgetEnabled = true;
+        private double budgetRatio = 0.1;
+        private int budgetMinRetriesPerSecond = 10;
+        private Duration budgetWindow = Duration.ofSeconds(10);
 
         public boolean isEnabled() { return enabled; }
         public void setEnabled(boolean enabled) { this.enabled = enabled; }
@@ -178,8 +348,247 @@ public class ResilientRedisProperties extends RedisProperties {
         public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
         public Duration getWaitDuration() { return waitDuration; }
         public void setWaitDuration(Duration waitDuration) { this.waitDuration = waitDuration; }
+        public Duration getMaxWaitDuration() { return maxWaitDuration; }
+        public void setMaxWaitDuration(Duration maxWaitDuration) { this.maxWaitDuration = maxWaitDuration; }
         public Duration getMaxRetryDuration() { return maxRetryDuration; }
         public void setMaxRetryDuration(Duration maxRetryDuration) { this.maxRetryDuration = maxRetryDuration; }
+        public boolean isBudgetEnabled() { return budgetEnabled; }
+        public void setBudgetEnabled(boolean budgetEnabled) { this.budgetEnabled = budgetEnabled; }
+        public double getBudgetRatio() { return budgetRatio; }
+        public void setBudgetRatio(double budgetRatio) { this.budgetRatio = budgetRatio; }
+        public int getBudgetMinRetriesPerSecond() { return budgetMinRetriesPerSecond; }
+        public void setBudgetMinRetriesPerSecond(int budgetMinRetriesPerSecond) { this.budgetMinRetriesPerSecond = budgetMinRetriesPerSecond; }
+        public Duration getBudgetWindow() { return budgetWindow; }
+        public void setBudgetWindow(Duration budgetWindow) { this.budgetWindow = budgetWindow; }
+    }
+
+    public static class NearCache {
+        private boolean enabled = false;
+        private long maximumSize = 10000;
+        private Duration expireAfterWrite = Duration.ofSeconds(60);
+        private boolean tracking = true;
+        private List<String> trackingPrefixes = new ArrayList<>();
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public long getMaximumSize() { return maximumSize; }
+        public void setMaximumSize(long maximumSize) { this.maximumSize = maximumSize; }
+        public Duration getExpireAfterWrite() { return expireAfterWrite; }
+        public void setExpireAfterWrite(Duration expireAfterWrite) { this.expireAfterWrite = expireAfterWrite; }
+        public boolean isTracking() { return tracking; }
+        public void setTracking(boolean tracking) { this.tracking = tracking; }
+        public List<String> getTrackingPrefixes() { return trackingPrefixes; }
+        public void setTrackingPrefixes(List<String> trackingPrefixes) { this.trackingPrefixes = trackingPrefixes; }
+    }
+
+    public static class Clear {
+        private int scanCount = 1000;
+        private int batchSize = 500;
+        private long maxKeysPerSecond = 0;
+
+        public int getScanCount() { return scanCount; }
+        public void setScanCount(int scanCount) { this.scanCount = scanCount; }
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+        public long getMaxKeysPerSecond() { return maxKeysPerSecond; }
+        public void setMaxKeysPerSecond(long maxKeysPerSecond) { this.maxKeysPerSecond = maxKeysPerSecond; }
+    }
+
+    public static class EarlyRefresh {
+        private boolean enabled = false;
+        private double beta = 1.0;
+        private int threads = 2;
+        private int queueCapacity = 1000;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public double getBeta() { return beta; }
+        public void setBeta(double beta) { this.beta = beta; }
+        public int getThreads() { return threads; }
+        public void setThreads(int threads) { this.threads = threads; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+    }
+
+    public static class Metrics {
+        private List<Duration> sloBuckets = new ArrayList<>(ResilientRedisMetrics.DEFAULT_SLO_BUCKETS);
+        private boolean percentileHistogram = false;
+        private double latencySampleRate = 1.0;
+
+        public List<Duration> getSloBuckets() { return sloBuckets; }
+        public void setSloBuckets(List<Duration> sloBuckets) { this.sloBuckets = sloBuckets; }
+        public boolean isPercentileHistogram() { return percentileHistogram; }
+        public void setPercentileHistogram(boolean percentileHistogram) { this.percentileHistogram = percentileHistogram; }
+        public double getLatencySampleRate() { return latencySampleRate; }
+        public void setLatencySampleRate(double latencySampleRate) { this.latencySampleRate = latencySampleRate; }
+    }
+
+    public static class Serialization {
+        private String codec = "jdk";
+        private int initialBufferSize = 512;
+        private int maxPooledBufferSize = 64 * 1024;
+
+        public String getCodec() { return codec; }
+        public void setCodec(String codec) { this.codec = codec; }
+        public int getInitialBufferSize() { return initialBufferSize; }
+        public void setInitialBufferSize(int initialBufferSize) { this.initialBufferSize = initialBufferSize; }
+        public int getMaxPooledBufferSize() { return maxPooledBufferSize; }
+        public void setMaxPooledBufferSize(int maxPooledBufferSize) { this.maxPooledBufferSize = maxPooledBufferSize; }
+    }
+
+    public static class Compression {
+        private boolean enabled = false;
+        private String algorithm = "zstd";
+        private int level = 1;
+        private int thresholdBytes = 16 * 1024;
+        private int maxDecompressedBytes = 64 * 1024 * 1024;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getAlgorithm() { return algorithm; }
+        public void setAlgorithm(String algorithm) { this.algorithm = algorithm; }
+        public int getLevel() { return level; }
+        public void setLevel(int level) { this.level = level; }
+        public int getThresholdBytes() { return thresholdBytes; }
+        public void setThresholdBytes(int thresholdBytes) { this.thresholdBytes = thresholdBytes; }
+        public int getMaxDecompressedBytes() { return maxDecompressedBytes; }
+        public void setMaxDecompressedBytes(int maxDecompressedBytes) { this.maxDecompressedBytes = maxDecompressedBytes; }
+    }
+
+    public static class Connection {
+        private String mode = "pooled";
+        private int pipelineFlushThreshold = 0;
+
+        public String getMode() { return mode; }
+        public void setMode(String mode) { this.mode = mode; }
+        public int getPipelineFlushThreshold() { return pipelineFlushThreshold; }
+        public void setPipelineFlushThreshold(int pipelineFlushThreshold) { this.pipelineFlushThreshold = pipelineFlushThreshold; }
+    }
+
+    public static class WriteBehind {
+        private boolean enabled = false;
+        private int maxPendingKeys = 10000;
+        private int batchSize = 100;
+        private Duration flushInterval = Duration.ofMillis(50);
+        private WriteBehindBuffer.OverflowPolicy overflowPolicy = WriteBehindBuffer.OverflowPolicy.BLOCK;
+        private Duration maxBlock = Duration.ofMillis(100);
+        private Duration shutdownTimeout = Duration.ofSeconds(5);
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getMaxPendingKeys() { return maxPendingKeys; }
+        public void setMaxPendingKeys(int maxPendingKeys) { this.maxPendingKeys = maxPendingKeys; }
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+        public Duration getFlushInterval() { return flushInterval; }
+        public void setFlushInterval(Duration flushInterval) { this.flushInterval = flushInterval; }
+        public WriteBehindBuffer.OverflowPolicy getOverflowPolicy() { return overflowPolicy; }
+        public void setOverflowPolicy(WriteBehindBuffer.OverflowPolicy overflowPolicy) { this.overflowPolicy = overflowPolicy; }
+        public Duration getMaxBlock() { return maxBlock; }
+        public void setMaxBlock(Duration maxBlock) { this.maxBlock = maxBlock; }
+        public Duration getShutdownTimeout() { return shutdownTimeout; }
+        public void setShutdownTimeout(Duration shutdownTimeout) { this.shutdownTimeout = shutdownTimeout; }
+    }
+
+    public static class GetBatching {
+        private boolean enabled = false;
+        private int maxBatchSize = 64;
+        private Duration window = Duration.ofNanos(200_000);
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getMaxBatchSize() { return maxBatchSize; }
+        public void setMaxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; }
+        public Duration getWindow() { return window; }
+        public void setWindow(Duration window) { this.window = window; }
+    }
+
+    public static class CommandTimeout {
+        // Per-operation timeouts, unset ones use redis.timeout
+        private Duration get;
+        private Duration put;
+        private Duration evict;
+        private Duration scan;
+        private Duration clear;
+        private boolean adaptive = false;
+        private double safetyFactor = 3.0;
+        private Duration floor = Duration.ofMillis(10);
+        private Duration ceiling = Duration.ofSeconds(1);
+        private Duration window = Duration.ofSeconds(10);
+        private int minSamples = 100;
+
+        public Duration getGet() { return get; }
+        public void setGet(Duration get) { this.get = get; }
+        public Duration getPut() { return put; }
+        public void setPut(Duration put) { this.put = put; }
+        public Duration getEvict() { return evict; }
+        public void setEvict(Duration evict) { this.evict = evict; }
+        public Duration getScan() { return scan; }
+        public void setScan(Duration scan) { this.scan = scan; }
+        public Duration getClear() { return clear; }
+        public void setClear(Duration clear) { this.clear = clear; }
+        public boolean isAdaptive() { return adaptive; }
+        public void setAdaptive(boolean adaptive) { this.adaptive = adaptive; }
+        public double getSafetyFactor() { return safetyFactor; }
+        public void setSafetyFactor(double safetyFactor) { this.safetyFactor = safetyFactor; }
+        public Duration getFloor() { return floor; }
+        public void setFloor(Duration floor) { this.floor = floor; }
+        public Duration getCeiling() { return ceiling; }
+        public void setCeiling(Duration ceiling) { this.ceiling = ceiling; }
+        public Duration getWindow() { return window; }
+        public void setWindow(Duration window) { this.window = window; }
+        public int getMinSamples() { return minSamples; }
+        public void setMinSamples(int minSamples) { this.minSamples = minSamples; }
+    }
+
+    public static class WarmUp {
+        private boolean enabled = false;
+        // Keys read once the connections are open, e.g. hot configuration entries
+        private List<String> keys = new ArrayList<>();
+        private Duration timeout = Duration.ofSeconds(10);
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public List<String> getKeys() { return keys; }
+        public void setKeys(List<String> keys) { this.keys = keys; }
+        public Duration getTimeout() { return timeout; }
+        public void setTimeout(Duration timeout) { this.timeout = timeout; }
+    }
+
+    public static class HotKeys {
+        private boolean enabled = false;
+        // One in sample-rate accesses is counted
+        private int sampleRate = 10;
+        private int sketchWidth = 4096;
+        private int sketchDepth = 4;
+        private int topK = 10;
+        private Duration window = Duration.ofSeconds(10);
+        // Estimated accesses per second from which a key counts as hot
+        private double hotRate = 1000;
+        private boolean pin = false;
+        private long pinMaxKeys = 100;
+        private Duration pinTtl = Duration.ofSeconds(1);
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getSampleRate() { return sampleRate; }
+        public void setSampleRate(int sampleRate) { this.sampleRate = sampleRate; }
+        public int getSketchWidth() { return sketchWidth; }
+        public void setSketchWidth(int sketchWidth) { this.sketchWidth = sketchWidth; }
+        public int getSketchDepth() { return sketchDepth; }
+        public void setSketchDepth(int sketchDepth) { this.sketchDepth = sketchDepth; }
+        public int getTopK() { return topK; }
+        public void setTopK(int topK) { this.topK = topK; }
+        public Duration getWindow() { return window; }
+        public void setWindow(Duration window) { this.window = window; }
+        public double getHotRate() { return hotRate; }
+        public void setHotRate(double hotRate) { this.hotRate = hotRate; }
+        public boolean isPin() { return pin; }
+        public void setPin(boolean pin) { this.pin = pin; }
+        public long getPinMaxKeys() { return pinMaxKeys; }
+        public void setPinMaxKeys(long pinMaxKeys) { this.pinMaxKeys = pinMaxKeys; }
+        public Duration getPinTtl() { return pinTtl; }
+        public void setPinTtl(Duration pinTtl) { this.pinTtl = pinTtl; }
     }
 
     public CircuitBreaker getCircuitBreakerConfig() {
@@ -205,4 +614,148 @@ public class ResilientRedisProperties extends RedisProperties {
     public void setFallbackEnabled(boolean fallbackEnabled) {
         this.fallbackEnabled = fallbackEnabled;
     }
+
+    public Duration getFallbackMaxStaleness() {
+        return fallbackMaxStaleness;
+    }
+
+    public void setFallbackMaxStaleness(Duration fallbackMaxStaleness) {
+        this.fallbackMaxStaleness = fallbackMaxStaleness;
+    }
+
+    public long getFallbackMaxBytes() {
+        return fallbackMaxBytes;
+    }
+
+    public void setFallbackMaxBytes(long fallbackMaxBytes) {
+        this.fallbackMaxBytes = fallbackMaxBytes;
+    }
+
+    public int getFallbackDefaultEntryBytes() {
+        return fallbackDefaultEntryBytes;
+    }
+
+    public void setFallbackDefaultEntryBytes(int fallbackDefaultEntryBytes) {
+        this.fallbackDefaultEntryBytes = fallbackDefaultEntryBytes;
+    }
+
+    public NearCache getNearCache() {
+        return nearCache;
+    }
+
+    public void setNearCache(NearCache nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    public Clear getClear() {
+        return clear;
+    }
+
+    public void setClear(Clear clear) {
+        this.clear = clear;
+    }
+
+    public EarlyRefresh getEarlyRefresh() {
+        return earlyRefresh;
+    }
+
+    public void setEarlyRefresh(EarlyRefresh earlyRefresh) {
+        this.earlyRefresh = earlyRefresh;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public void setBulkhead(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    public ConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public void setConcurrencyLimit(ConcurrencyLimit concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    public Hedge getHedge() {
+        return hedge;
+    }
+
+    public void setHedge(Hedge hedge) {
+        this.hedge = hedge;
+    }
+
+    public Serialization getSerialization() {
+        return serialization;
+    }
+
+    public void setSerialization(Serialization serialization) {
+        this.serialization = serialization;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public void setCompression(Compression compression) {
+        this.compression = compression;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public void setConnection(Connection connection) {
+        this.connection = connection;
+    }
+
+    public WriteBehind getWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(WriteBehind writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public GetBatching getGetBatching() {
+        return getBatching;
+    }
+
+    public void setGetBatching(GetBatching getBatching) {
+        this.getBatching = getBatching;
+    }
+
+    public CommandTimeout getCommandTimeout() {
+        return commandTimeout;
+    }
+
+    public void setCommandTimeout(CommandTimeout commandTimeout) {
+        this.commandTimeout = commandTimeout;
+    }
+
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(WarmUp warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public HotKeys getHotKeys() {
+        return hotKeys;
+    }
+
+    public void setHotKeys(HotKeys hotKeys) {
+        this.hotKeys = hotKeys;
+    }
 }
@@ -16,6 +16,8 @@
 
 package io.github.blaspat;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.lettuce.core.RedisCommandExecutionException;
 import io.lettuce.core.RedisCommandInterruptedException;
 import io.lettuce.core.RedisCommandTimeoutException;
@@ -26,11 +28,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.SerializationException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
 import java.util.function.Supplier;
 
 public class ResilientRedisTemplate<K, V> {
@@ -42,6 +57,22 @@ public class ResilientRedisTemplate<K, V> {
     private final ResilientRedisMetrics metrics;
     private final boolean circuitBreakerEnabled;
     private final boolean retryEnabled;
+    private NearCache<K, V> nearCache;
+    private HotKeyDetector hotKeys;
+    private NearCache<K, V> pinnedHotKeys;
+    private LastKnownGoodStore lastKnownGood;
+    private EarlyRefresher earlyRefresher;
+    private BulkheadManager bulkheadManager;
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private HedgedReader<K, V> hedgedReader;
+    private ClusterSlotRouter clusterSlotRouter;
+    private SharedConnectionPipeline sharedConnectionPipeline;
+    private WriteBehindBuffer<K, V> writeBehind;
+    private GetBatcher<K, V> getBatcher;
+    private int bulkChunkSize = 100;
+    private int clearScanCount = 1000;
+    private int clearBatchSize = 500;
+    private long clearMaxKeysPerSecond = 0;
 
     public ResilientRedisTemplate(RedisTemplate<K, V> redisTemplate) {
         this(redisTemplate, null, null, null);
@@ -60,14 +91,143 @@ public class ResilientRedisTemplate<K, V> {
         this.retryEnabled = retryManager != null;
     }
 
+    public void setNearCache(NearCache<K, V> nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    /**
+     * Feeds sampled key accesses to {@code detector}. With {@code pinned} set, reads of keys the detector reports as
+     * hot are served from that small local cache; it should expire entries after a short TTL, since it only sees
+     * this instance's writes.
+     */
+    public void setHotKeyDetection(HotKeyDetector detector, NearCache<K, V> pinned) {
+        this.hotKeys = detector;
+        this.pinnedHotKeys = detector != null ? pinned : null;
+    }
+
+    public List<HotKeyDetector.HotKey> hotKeys() {
+        return hotKeys != null ? hotKeys.topKeys() : Collections.emptyList();
+    }
+
+    public void setLastKnownGood(LastKnownGoodStore lastKnownGood) {
+        this.lastKnownGood = lastKnownGood;
+    }
+
+    public void setEarlyRefresher(EarlyRefresher earlyRefresher) {
+        this.earlyRefresher = earlyRefresher;
+    }
+
+    public void setBulkheadManager(BulkheadManager bulkheadManager) {
+        this.bulkheadManager = bulkheadManager;
+    }
+
+    public void setConcurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    public void setHedgedReader(HedgedReader<K, V> hedgedReader) {
+        this.hedgedReader = hedgedReader;
+    }
+
+    public void setClusterSlotRouter(ClusterSlotRouter clusterSlotRouter) {
+        this.clusterSlotRouter = clusterSlotRouter;
+    }
+
+    /**
+     * Sends {@link #multiPut} chunks over the shared native connection instead of a dedicated pipelined one.
+     */
+    public void setSharedConnectionPipeline(SharedConnectionPipeline sharedConnectionPipeline) {
+        this.sharedConnectionPipeline = sharedConnectionPipeline;
+    }
+
+    /**
+     * Buffers {@link #put} and {@link #putWithTTL} and flushes them in batches from a background thread.
+     */
+    public void setWriteBehind(WriteBehindBuffer<K, V> writeBehind) {
+        this.writeBehind = writeBehind;
+        if (writeBehind != null) {
+            writeBehind.start((entries, ttlMillis) -> putChunks(new ArrayList<>(entries.keySet()), entries, ttlMillis));
+        }
+    }
+
+    /**
+     * Collects concurrent {@link #get} calls into MGETs of up to {@code maxBatchSize} keys, waiting at most
+     * {@code window} for a batch to fill; a non-positive batch size turns batching off.
+     */
+    public void setGetBatching(int maxBatchSize, Duration window) {
+        this.getBatcher = maxBatchSize > 1 ? new GetBatcher<>(maxBatchSize, window, this::getBatch, metrics) : null;
+    }
+
+    public void setBulkChunkSize(int bulkChunkSize) {
+        this.bulkChunkSize = bulkChunkSize;
+    }
+
+    public void setClearScanCount(int clearScanCount) {
+        this.clearScanCount = clearScanCount;
+    }
+
+    public void setClearBatchSize(int clearBatchSize) {
+        this.clearBatchSize = Math.max(1, clearBatchSize);
+    }
+
+    public void setClearMaxKeysPerSecond(long clearMaxKeysPerSecond) {
+        this.clearMaxKeysPerSecond = clearMaxKeysPerSecond;
+    }
+
     public V get(K key) {
-        return executeWithResilience("get", () -> {
+        if (writeBehind != null) {
+            V buffered = writeBehind.pendingValue(key);
+            if (buffered != null) {
+                return buffered;
+            }
+        }
+        if (hotKeys != null) {
+            hotKeys.record(key);
+            if (pinnedHotKeys != null && hotKeys.isHot(key)) {
+                return getPinned(key);
+            }
+        }
+        return getThroughNearCache(key);
+    }
+
+    private V getPinned(K key) {
+        V pinned = pinnedHotKeys.get(key);
+        if (pinned != null) {
+            return pinned;
+        }
+        long generation = pinnedHotKeys.generation(key);
+        V result = getThroughNearCache(key);
+        pinnedHotKeys.putIfUnchanged(key, result, generation);
+        return result;
+    }
+
+    private V getThroughNearCache(K key) {
+        if (nearCache == null) {
+            return getFromRedis(key);
+        }
+        V cached = nearCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = nearCache.generation(key);
+        V result = getFromRedis(key);
+        nearCache.putIfUnchanged(key, result, generation);
+        return result;
+    }
+
+    private V getFromRedis(K key) {
+        return getBatcher != null ? getBatcher.get(key) : getSingle(key);
+    }
+
+    private V getSingle(K key) {
+        return executeWithResilience(RedisOperation.GET, key, () -> {
             try {
-                V result = redisTemplate.opsForValue().get(key);
+                V result = unwrap(hedgedReader != null ? hedgedReader.get(key) : redisTemplate.opsForValue().get(key));
                 if (result != null) {
-                    recordHit("get");
+                    recordHit(RedisOperation.GET);
+                    recordLastKnownGood(key, result);
                 } else {
-                    recordMiss("get");
+                    recordMiss(RedisOperation.GET);
                 }
                 return result;
             } catch (SerializationException ex) {
@@ -75,37 +235,349 @@ public class ResilientRedisTemplate<K, V> {
                 this.evict(key);
                 return null;
             }
+        }, lastKnownGood == null ? null : () -> staleValue(key, RedisOperation.GET));
+    }
+
+    private V readSingle(K key) {
+        try {
+            return unwrap(hedgedReader != null ? hedgedReader.get(key) : redisTemplate.opsForValue().get(key));
+        } catch (SerializationException ex) {
+            logger.warn("Serialization error for key '{}', evicting corrupted cache entry: {}", key, ex.getMessage());
+            this.evict(key);
+            return null;
+        }
+    }
+
+    private Map<K, V> getBatch(List<K> keys) {
+        Map<K, V> result = new HashMap<>();
+        if (keys.size() == 1) {
+            result.put(keys.get(0), getSingle(keys.get(0)));
+            return result;
+        }
+        for (List<K> chunk : chunk(keys)) {
+            // Hits and last-known-good are recorded inside the supplier so stale fallback values are never re-stamped
+            List<V> values = executeWithResilience(RedisOperation.GET, chunk.get(0), () -> {
+                List<V> fetched;
+                try {
+                    fetched = hedgedReader != null ? hedgedReader.multiGet(chunk) : redisTemplate.opsForValue().multiGet(chunk);
+                } catch (SerializationException ex) {
+                    logger.warn("Serialization error in batched get of {} keys, falling back to single gets: {}", chunk.size(), ex.getMessage());
+                    fetched = new ArrayList<>(chunk.size());
+                    for (K key : chunk) {
+                        fetched.add(readSingle(key));
+                    }
+                }
+                List<V> unwrapped = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    V value = fetched != null && i < fetched.size() ? unwrap(fetched.get(i)) : null;
+                    if (value != null) {
+                        recordHit(RedisOperation.GET);
+                        recordLastKnownGood(chunk.get(i), value);
+                    } else {
+                        recordMiss(RedisOperation.GET);
+                    }
+                    unwrapped.add(value);
+                }
+                return unwrapped;
+            }, lastKnownGood == null ? null : () -> {
+                List<V> stale = new ArrayList<>(chunk.size());
+                for (K key : chunk) {
+                    stale.add(staleValue(key, RedisOperation.GET));
+                }
+                return stale;
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                result.put(chunk.get(i), values != null && i < values.size() ? values.get(i) : null);
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getOrLoad(K key, Supplier<V> loader, long timeout, TimeUnit unit) {
+        Object raw = this.<Object>executeWithResilience(RedisOperation.GET_OR_LOAD, key, () -> {
+            try {
+                Object value = redisTemplate.opsForValue().get(key);
+                if (value != null) {
+                    recordHit(RedisOperation.GET_OR_LOAD);
+                    recordLastKnownGood(key, unwrap(value));
+                } else {
+                    recordMiss(RedisOperation.GET_OR_LOAD);
+                }
+                return value;
+            } catch (SerializationException ex) {
+                logger.warn("Serialization error for key '{}', evicting corrupted cache entry: {}", key, ex.getMessage());
+                this.evict(key);
+                return null;
+            }
+        }, lastKnownGood == null ? null : () -> staleValue(key, RedisOperation.GET_OR_LOAD));
+
+        if (raw instanceof EarlyRefreshEntry) {
+            EarlyRefreshEntry entry = (EarlyRefreshEntry) raw;
+            if (earlyRefresher != null && earlyRefresher.shouldRefresh(entry)) {
+                earlyRefresher.refresh(key, () -> load(key, loader, timeout, unit));
+            }
+            return (V) entry.getValue();
+        }
+        if (raw != null) {
+            return (V) raw;
+        }
+        return load(key, loader, timeout, unit);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V load(K key, Supplier<V> loader, long timeout, TimeUnit unit) {
+        long start = System.nanoTime();
+        V value = loader.get();
+        long computeMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        if (value == null) {
+            return null;
+        }
+        invalidateNearCache(key);
+        Object stored = earlyRefresher != null
+                ? new EarlyRefreshEntry(value, computeMicros, System.currentTimeMillis() + unit.toMillis(timeout))
+                : value;
+        RedisTemplate<K, Object> rawTemplate = (RedisTemplate<K, Object>) redisTemplate;
+        executeWithResilience(RedisOperation.PUT_WITH_TTL, key, () -> {
+            try {
+                rawTemplate.opsForValue().set(key, stored, timeout, unit);
+                recordLastKnownGood(key, value);
+            } catch (SerializationException ex) {
+                logger.warn("Serialization error while putting key '{}' with TTL: {}", key, ex.getMessage());
+                throw ex;
+            }
         });
+        invalidateNearCacheAfterWrite(key);
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V unwrap(Object value) {
+        return (V) EarlyRefreshEntry.unwrap(value);
+    }
+
+    private V staleValue(K key, RedisOperation operation) {
+        if (nearCache != null) {
+            // Keep stale values out of the near cache so they stop being served once Redis recovers
+            nearCache.skipNextPut(key);
+        }
+        if (pinnedHotKeys != null) {
+            pinnedHotKeys.skipNextPut(key);
+        }
+        return lastKnownGood.getStale(key, operation);
     }
 
     public void put(K key, V value) {
-        executeWithResilience("put", () -> {
+        recordAccess(key);
+        invalidateNearCache(key);
+        if (writeBehind != null && writeBehind.offer(key, value, 0)) {
+            return;
+        }
+        executeWithResilience(RedisOperation.PUT, key, () -> {
             try {
                 redisTemplate.opsForValue().set(key, value);
+                recordLastKnownGood(key, value);
             } catch (SerializationException ex) {
                 logger.warn("Serialization error while putting key '{}': {}", key, ex.getMessage());
                 throw ex;
             }
         });
+        invalidateNearCacheAfterWrite(key);
     }
 
     public void putWithTTL(K key, V value, long timeout, TimeUnit unit) {
-        executeWithResilience("putWithTTL", () -> {
+        recordAccess(key);
+        invalidateNearCache(key);
+        if (writeBehind != null && writeBehind.offer(key, value, unit.toMillis(timeout))) {
+            return;
+        }
+        executeWithResilience(RedisOperation.PUT_WITH_TTL, key, () -> {
             try {
                 redisTemplate.opsForValue().set(key, value, timeout, unit);
+                recordLastKnownGood(key, value);
             } catch (SerializationException ex) {
                 logger.warn("Serialization error while putting key '{}' with TTL: {}", key, ex.getMessage());
                 throw ex;
             }
         });
+        invalidateNearCacheAfterWrite(key);
     }
 
     public void evict(K key) {
-        executeWithResilience("evict", () -> redisTemplate.delete(key));
+        if (writeBehind != null) {
+            writeBehind.cancel(key);
+        }
+        invalidateNearCache(key);
+        if (lastKnownGood != null) {
+            lastKnownGood.remove(key);
+        }
+        executeWithResilience(RedisOperation.EVICT, key, () -> redisTemplate.delete(key));
+        invalidateNearCacheAfterWrite(key);
+    }
+
+    public Map<K, V> multiGet(Collection<K> keys) {
+        Map<K, V> result = new HashMap<>();
+        List<K> remaining = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            recordAccess(key);
+            V cached = nearCache != null ? nearCache.get(key) : null;
+            if (cached != null) {
+                result.put(key, cached);
+            } else {
+                remaining.add(key);
+            }
+        }
+        for (List<K> chunk : chunk(remaining)) {
+            long[] generations = nearCacheGenerations(chunk);
+            // Hits, misses and last-known-good are recorded once per key inside the supplier, never for fallback values
+            List<V> values = executeWithResilience(RedisOperation.MULTI_GET, chunk.get(0), () -> {
+                List<V> fetched;
+                try {
+                    fetched = hedgedReader != null
+                            ? hedgedReader.multiGet(chunk)
+                            : redisTemplate.opsForValue().multiGet(chunk);
+                } catch (SerializationException ex) {
+                    logger.warn("Serialization error in multiGet chunk of {} keys, falling back to single gets: {}", chunk.size(), ex.getMessage());
+                    fetched = new ArrayList<>(chunk.size());
+                    for (K key : chunk) {
+                        fetched.add(readSingle(key));
+                    }
+                }
+                if (fetched == null) {
+                    return null;
+                }
+                List<V> unwrapped = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    V value = i < fetched.size() ? unwrap(fetched.get(i)) : null;
+                    if (value != null) {
+                        recordHit(RedisOperation.MULTI_GET);
+                        recordLastKnownGood(chunk.get(i), value);
+                    } else {
+                        recordMiss(RedisOperation.MULTI_GET);
+                    }
+                    unwrapped.add(value);
+                }
+                return unwrapped;
+            }, lastKnownGood == null ? null : () -> {
+                List<V> stale = new ArrayList<>(chunk.size());
+                for (K key : chunk) {
+                    stale.add(staleValue(key, RedisOperation.MULTI_GET));
+                }
+                return stale;
+            });
+            if (values == null) {
+                continue;
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                K key = chunk.get(i);
+                V value = i < values.size() ? values.get(i) : null;
+                if (value != null) {
+                    result.put(key, value);
+                    if (nearCache != null) {
+                        nearCache.putIfUnchanged(key, value, generations[i]);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    public void multiPut(Map<K, V> entries, long timeout, TimeUnit unit) {
+        List<K> keys = new ArrayList<>(entries.keySet());
+        for (K key : keys) {
+            invalidateNearCache(key);
+        }
+        putChunks(keys, entries, unit.toMillis(timeout));
+    }
+
+    private void putChunks(List<K> keys, Map<K, V> entries, long ttlMillis) {
+        for (List<K> chunk : chunk(keys)) {
+            executeWithResilience(RedisOperation.MULTI_PUT, chunk.get(0), () -> {
+                try {
+                    if (sharedConnectionPipeline != null) {
+                        putShared(chunk, entries, ttlMillis);
+                    } else {
+                        putPipelined(chunk, entries, ttlMillis);
+                    }
+                    // Recorded once Redis has the values, write-behind flushes included
+                    for (K key : chunk) {
+                        recordLastKnownGood(key, entries.get(key));
+                    }
+                } catch (SerializationException ex) {
+                    logger.warn("Serialization error while putting chunk of {} keys: {}", chunk.size(), ex.getMessage());
+                    throw ex;
+                }
+            });
+            for (K key : chunk) {
+                invalidateNearCacheAfterWrite(key);
+            }
+        }
+    }
+
+    private void putPipelined(List<K> chunk, Map<K, V> entries, long ttlMillis) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <KK, VV> Object execute(RedisOperations<KK, VV> operations) {
+                RedisOperations<K, V> ops = (RedisOperations<K, V>) operations;
+                for (K key : chunk) {
+                    if (ttlMillis > 0) {
+                        ops.opsForValue().set(key, entries.get(key), ttlMillis, TimeUnit.MILLISECONDS);
+                    } else {
+                        ops.opsForValue().set(key, entries.get(key));
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void putShared(List<K> chunk, Map<K, V> entries, long ttlMillis) {
+        RedisSerializer<V> valueSerializer = (RedisSerializer<V>) redisTemplate.getValueSerializer();
+        List<byte[]> rawKeys = new ArrayList<>(chunk.size());
+        List<byte[]> rawValues = new ArrayList<>(chunk.size());
+        for (K key : chunk) {
+            rawKeys.add(rawKey(key));
+            rawValues.add(valueSerializer.serialize(entries.get(key)));
+        }
+        sharedConnectionPipeline.set(rawKeys, rawValues, ttlMillis);
+    }
+
+    public void multiEvict(Collection<K> keys) {
+        List<K> remaining = new ArrayList<>(keys);
+        for (K key : remaining) {
+            if (writeBehind != null) {
+                writeBehind.cancel(key);
+            }
+            invalidateNearCache(key);
+            if (lastKnownGood != null) {
+                lastKnownGood.remove(key);
+            }
+        }
+        for (List<K> chunk : chunk(remaining)) {
+            executeWithResilience(RedisOperation.MULTI_EVICT, chunk.get(0), () -> redisTemplate.unlink(chunk));
+            for (K key : chunk) {
+                invalidateNearCacheAfterWrite(key);
+            }
+        }
     }
 
     public void clear() {
-        executeWithResilience("clear", () -> {
+        if (writeBehind != null) {
+            writeBehind.cancelIf(key -> true);
+        }
+        if (nearCache != null) {
+            nearCache.invalidateAll("local");
+        }
+        if (pinnedHotKeys != null) {
+            pinnedHotKeys.invalidateAll("local");
+        }
+        if (lastKnownGood != null) {
+            // The store may be shared with cache decorators, whose entries are not this template's to drop
+            lastKnownGood.removeIf(key -> !(key instanceof ResilientCacheDecorator.StoreKey));
+        }
+        executeWithResilience(RedisOperation.CLEAR, null, () -> {
             try {
                 redisTemplate.getConnectionFactory().getConnection().flushDb();
             } catch (RedisConnectionException | RedisCommandTimeoutException |
@@ -114,81 +586,388 @@ public class ResilientRedisTemplate<K, V> {
                 logger.error("Redis clear error: {}", e.getMessage());
             }
         });
+        // Reads racing with the flush may have cached values it removed
+        if (nearCache != null) {
+            nearCache.invalidateAll("local");
+        }
+        if (pinnedHotKeys != null) {
+            pinnedHotKeys.invalidateAll("local");
+        }
     }
 
     public void clear(String keyNamePrefix) {
-        executeWithResilience("clearPrefix", () -> {
-            try (Cursor<K> cursor = redisTemplate.scan(ScanOptions.scanOptions()
-                    .match(keyNamePrefix + "*")
-                    .count(100)
-                    .build())) {
-                while (cursor.hasNext()) {
-                    K key = cursor.next();
-                    redisTemplate.delete(key);
+        clear(keyNamePrefix, null);
+    }
+
+    public long clear(String keyNamePrefix, LongConsumer progress) {
+        if (writeBehind != null) {
+            writeBehind.cancelIf(key -> String.valueOf(key).startsWith(keyNamePrefix));
+        }
+        long start = System.nanoTime();
+        long unlinked = 0;
+        List<K> batch = new ArrayList<>(clearBatchSize);
+        try (Cursor<K> cursor = redisTemplate.scan(ScanOptions.scanOptions()
+                .match(keyNamePrefix + "*")
+                .count(clearScanCount)
+                .build())) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= clearBatchSize) {
+                    unlinked += unlinkBatch(batch);
+                    reportProgress(progress, unlinked);
+                    if (!throttle(start, unlinked)) {
+                        break;
+                    }
                 }
-            } catch (RedisConnectionException | RedisCommandTimeoutException |
-                     RedisCommandExecutionException | DataAccessException |
-                     RedisCommandInterruptedException e) {
-                logger.error("Redis clear(prefix) error: {}", e.getMessage());
             }
-        });
+            if (!batch.isEmpty()) {
+                unlinked += unlinkBatch(batch);
+                reportProgress(progress, unlinked);
+            }
+        } catch (RedisConnectionException | RedisCommandTimeoutException |
+                 RedisCommandExecutionException | DataAccessException |
+                 RedisCommandInterruptedException e) {
+            logger.error("Redis clear(prefix) error: {}", e.getMessage());
+        }
+        logger.info("Redis clear(prefix) '{}' unlinked {} keys in {} ms",
+                keyNamePrefix, unlinked, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return unlinked;
+    }
+
+    /**
+     * Drains the write-behind buffer; invoked by Spring on shutdown when the template is a bean.
+     */
+    public void close() {
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+    }
+
+    private long unlinkBatch(List<K> batch) {
+        List<K> keys = new ArrayList<>(batch);
+        batch.clear();
+        for (K key : keys) {
+            invalidateNearCache(key);
+            if (lastKnownGood != null) {
+                lastKnownGood.remove(key);
+            }
+        }
+        long unlinked = 0;
+        for (List<K> group : chunk(keys)) {
+            // Keys can expire or be deleted between SCAN and UNLINK, so count what Redis actually removed
+            long[] removed = new long[1];
+            executeWithResilience(RedisOperation.CLEAR_PREFIX, group.get(0), () -> {
+                Long count = redisTemplate.unlink(group);
+                removed[0] = count != null ? count : 0;
+            });
+            unlinked += removed[0];
+            for (K key : group) {
+                invalidateNearCacheAfterWrite(key);
+            }
+        }
+        return unlinked;
+    }
+
+    private void reportProgress(LongConsumer progress, long unlinked) {
+        if (progress != null) {
+            progress.accept(unlinked);
+        }
+    }
+
+    private boolean throttle(long startNanos, long unlinked) {
+        if (clearMaxKeysPerSecond <= 0) {
+            return true;
+        }
+        long expectedNanos = unlinked * 1_000_000_000L / clearMaxKeysPerSecond;
+        long sleepNanos = expectedNanos - (System.nanoTime() - startNanos);
+        if (sleepNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Redis clear(prefix) interrupted after {} keys", unlinked);
+            return false;
+        }
+    }
+
+    private <T> T executeWithResilience(RedisOperation operation, K routingKey, Supplier<T> supplier) {
+        return executeWithResilience(operation, routingKey, supplier, null);
+    }
+
+    private <T> T executeWithResilience(RedisOperation operation, K routingKey, Supplier<T> supplier, Supplier<T> fallback) {
+        if (!acquireLimit(operation)) {
+            return fallback != null ? fallback(operation, fallback) : null;
+        }
+        long start = startTimer();
+        long limiterStart = concurrencyLimiter != null ? System.nanoTime() : 0L;
+        boolean dropped = true;
+        try {
+            T result = executeDecorated(operation, circuitName(operation, routingKey), supplier, fallback);
+            dropped = false;
+            return result;
+        } finally {
+            stopTimer(operation, start);
+            releaseLimit(limiterStart, dropped);
+        }
     }
 
-    private <T> T executeWithResilience(String operation, Supplier<T> supplier) {
+    private <T> T executeDecorated(RedisOperation operation, String circuitName, Supplier<T> supplier, Supplier<T> fallback) {
         Supplier<T> decorated = supplier;
 
+        if (RedisDeadline.isSet()) {
+            decorated = () -> {
+                RedisDeadline.check();
+                return supplier.get();
+            };
+        }
+
         if (retryEnabled) {
-            decorated = () -> retryManager.execute(supplier);
+            Supplier<T> attempt = decorated;
+            decorated = () -> retryManager.execute(attempt);
         }
 
         if (circuitBreakerEnabled) {
-            return circuitBreakerManager.execute(decorated::get);
+            Supplier<T> retried = decorated;
+            decorated = () -> circuitBreakerManager.execute(circuitName, retried);
+        }
+
+        if (bulkheadManager != null) {
+            Supplier<T> guarded = decorated;
+            decorated = () -> bulkheadManager.execute(operation.category(), guarded);
+        }
+
+        if (circuitBreakerEnabled) {
+            if (fallback == null) {
+                try {
+                    return decorated.get();
+                } catch (BulkheadFullException e) {
+                    // Shed before reaching Redis, a read without fallback is answered as a miss
+                    logger.debug("Redis {} shed: {}", operation.tag(), e.getMessage());
+                    return null;
+                }
+            }
+            try {
+                return decorated.get();
+            } catch (CallNotPermittedException | BulkheadFullException | RedisConnectionException |
+                     RedisCommandTimeoutException | RedisCommandExecutionException | DataAccessException |
+                     RedisCommandInterruptedException e) {
+                logger.warn("Redis {} unavailable, serving fallback: {}", operation.tag(), e.getMessage());
+                return fallback(operation, fallback);
+            }
         }
 
         try {
             return decorated.get();
+        } catch (BulkheadFullException e) {
+            logger.debug("Redis {} shed: {}", operation.tag(), e.getMessage());
+            return fallback != null ? fallback(operation, fallback) : null;
         } catch (RedisConnectionException | RedisCommandTimeoutException |
                  RedisCommandExecutionException | DataAccessException |
                  RedisCommandInterruptedException e) {
-            logger.error("Redis {} error: {}", operation, e.getMessage());
+            logger.error("Redis {} error: {}", operation.tag(), e.getMessage());
             if (metrics != null) {
-                metrics.recordError(operation, e.getClass().getSimpleName());
+                metrics.recordError(operation, e);
             }
-            return null;
+            return fallback != null ? fallback(operation, fallback) : null;
+        }
+    }
+
+    private <T> T fallback(RedisOperation operation, Supplier<T> fallback) {
+        if (metrics != null) {
+            metrics.recordFallback(operation);
+        }
+        return fallback.get();
+    }
+
+    private void executeWithResilience(RedisOperation operation, K routingKey, Runnable runnable) {
+        if (!acquireLimit(operation)) {
+            rejectWrite(operation);
+            return;
+        }
+        long start = startTimer();
+        long limiterStart = concurrencyLimiter != null ? System.nanoTime() : 0L;
+        boolean dropped = true;
+        try {
+            executeDecorated(operation, circuitName(operation, routingKey), runnable);
+            dropped = false;
+        } finally {
+            stopTimer(operation, start);
+            releaseLimit(limiterStart, dropped);
+        }
+    }
+
+    private String circuitName(RedisOperation operation, K routingKey) {
+        if (clusterSlotRouter == null || routingKey == null || !circuitBreakerEnabled) {
+            return operation.category();
+        }
+        // One breaker per category and cluster node, so a sick shard does not open the circuit for the keyspace
+        return operation.category() + "@" + clusterSlotRouter.node(rawKey(routingKey));
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(K key) {
+        RedisSerializer<K> keySerializer = (RedisSerializer<K>) redisTemplate.getKeySerializer();
+        return keySerializer != null ? keySerializer.serialize(key) : key.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private boolean acquireLimit(RedisOperation operation) {
+        if (concurrencyLimiter == null || concurrencyLimiter.tryAcquire()) {
+            return true;
+        }
+        logger.debug("Redis {} rejected, {} commands in flight", operation.tag(), concurrencyLimiter.getInFlight());
+        return false;
+    }
+
+    private void rejectWrite(RedisOperation operation) {
+        ConcurrencyLimitExceededException e = new ConcurrencyLimitExceededException(
+                "Redis " + operation.tag() + " rejected, concurrency limit of " + concurrencyLimiter.getLimit() + " reached");
+        // A write has no fallback, so a rejection surfaces the same way a failed write does
+        if (circuitBreakerEnabled) {
+            throw e;
+        }
+        logger.error("Redis {} error: {}", operation.tag(), e.getMessage());
+        if (metrics != null) {
+            metrics.recordError(operation, e);
+        }
+    }
+
+    private void releaseLimit(long limiterStart, boolean dropped) {
+        if (concurrencyLimiter != null) {
+            concurrencyLimiter.release(System.nanoTime() - limiterStart, dropped);
         }
     }
 
-    private void executeWithResilience(String operation, Runnable runnable) {
+    private void executeDecorated(RedisOperation operation, String circuitName, Runnable runnable) {
         Runnable decorated = runnable;
 
+        if (RedisDeadline.isSet()) {
+            decorated = () -> {
+                RedisDeadline.check();
+                runnable.run();
+            };
+        }
+
         if (retryEnabled) {
-            decorated = () -> retryManager.execute(runnable);
+            Runnable attempt = decorated;
+            decorated = () -> retryManager.execute(attempt);
         }
 
         if (circuitBreakerEnabled) {
-            circuitBreakerManager.execute(decorated);
+            Runnable retried = decorated;
+            decorated = () -> circuitBreakerManager.execute(circuitName, retried);
+        }
+
+        if (bulkheadManager != null) {
+            Runnable guarded = decorated;
+            decorated = () -> bulkheadManager.execute(operation.category(), guarded);
+        }
+
+        if (circuitBreakerEnabled) {
+            decorated.run();
             return;
         }
 
         try {
             decorated.run();
-        } catch (RedisConnectionException | RedisCommandTimeoutException |
+        } catch (BulkheadFullException | RedisConnectionException | RedisCommandTimeoutException |
                  RedisCommandExecutionException | DataAccessException |
                  RedisCommandInterruptedException e) {
-            logger.error("Redis {} error: {}", operation, e.getMessage());
+            logger.error("Redis {} error: {}", operation.tag(), e.getMessage());
             if (metrics != null) {
-                metrics.recordError(operation, e.getClass().getSimpleName());
+                metrics.recordError(operation, e);
+            }
+        }
+    }
+
+    private List<List<K>> chunk(List<K> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (clusterSlotRouter != null) {
+            // Multi-key commands must stay within one hash slot in a cluster
+            Map<Integer, List<K>> bySlot = new LinkedHashMap<>();
+            for (K key : keys) {
+                bySlot.computeIfAbsent(clusterSlotRouter.slot(rawKey(key)), slot -> new ArrayList<>()).add(key);
+            }
+            List<List<K>> chunks = new ArrayList<>();
+            for (List<K> slotKeys : bySlot.values()) {
+                chunks.addAll(chunkInOrder(slotKeys));
+            }
+            return chunks;
+        }
+        return chunkInOrder(keys);
+    }
+
+    private List<List<K>> chunkInOrder(List<K> keys) {
+        int size = Math.max(1, bulkChunkSize);
+        List<List<K>> chunks = new ArrayList<>((keys.size() + size - 1) / size);
+        for (int i = 0; i < keys.size(); i += size) {
+            chunks.add(keys.subList(i, Math.min(i + size, keys.size())));
+        }
+        return chunks;
+    }
+
+    private long[] nearCacheGenerations(List<K> keys) {
+        long[] generations = new long[keys.size()];
+        if (nearCache != null) {
+            for (int i = 0; i < keys.size(); i++) {
+                generations[i] = nearCache.generation(keys.get(i));
             }
         }
+        return generations;
+    }
+
+    private void recordLastKnownGood(K key, V value) {
+        if (lastKnownGood != null) {
+            lastKnownGood.record(key, value);
+        }
+    }
+
+    private void invalidateNearCache(K key) {
+        if (nearCache != null) {
+            nearCache.invalidate(key, "local");
+        }
+        if (pinnedHotKeys != null) {
+            pinnedHotKeys.invalidate(key, "local");
+        }
+    }
+
+    // A read that started between the invalidation before a write and the write itself may have cached the old value
+    private void invalidateNearCacheAfterWrite(K key) {
+        if (nearCache != null) {
+            nearCache.invalidateAfterWrite(key);
+        }
+        if (pinnedHotKeys != null) {
+            pinnedHotKeys.invalidateAfterWrite(key);
+        }
+    }
+
+    private void recordAccess(K key) {
+        if (hotKeys != null) {
+            hotKeys.record(key);
+        }
+    }
+
+    private long startTimer() {
+        return metrics != null ? metrics.startTimer() : ResilientRedisMetrics.NOT_SAMPLED;
+    }
+
+    private void stopTimer(RedisOperation operation, long start) {
+        if (metrics != null) {
+            metrics.stopTimer(operation, start);
+        }
     }
 
-    private void recordHit(String operation) {
+    private void recordHit(RedisOperation operation) {
         if (metrics != null) {
             metrics.recordHit(operation);
         }
     }
 
-    private void recordMiss(String operation) {
+    private void recordMiss(RedisOperation operation) {
         if (metrics != null) {
             metrics.recordMiss(operation);
         }
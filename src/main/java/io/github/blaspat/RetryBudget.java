@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide retry budget. Every first attempt deposits {@code retryRatio} tokens, every retry withdraws one, and
+ * tokens are counted over a sliding window of one-second buckets. A floor of {@code minRetriesPerSecond} keeps
+ * low-traffic processes able to retry at all.
+ */
+public class RetryBudget {
+
+    private final double retryRatio;
+    private final long minRetries;
+    private final int windowSeconds;
+    private final AtomicLongArray bucketSeconds;
+    private final AtomicLongArray attempts;
+    private final AtomicLongArray retries;
+    private final ResilientRedisMetrics metrics;
+    private final LongSupplier currentTimeMillis;
+
+    public RetryBudget(double retryRatio, int minRetriesPerSecond, Duration window, ResilientRedisMetrics metrics) {
+        this(retryRatio, minRetriesPerSecond, window, metrics, System::currentTimeMillis);
+    }
+
+    RetryBudget(double retryRatio, int minRetriesPerSecond, Duration window, ResilientRedisMetrics metrics,
+            LongSupplier currentTimeMillis) {
+        this.currentTimeMillis = currentTimeMillis;
+        this.retryRatio = retryRatio;
+        this.windowSeconds = (int) Math.max(1L, window.getSeconds());
+        this.minRetries = (long) minRetriesPerSecond * windowSeconds;
+        this.bucketSeconds = new AtomicLongArray(windowSeconds);
+        this.attempts = new AtomicLongArray(windowSeconds);
+        this.retries = new AtomicLongArray(windowSeconds);
+        this.metrics = metrics;
+        if (metrics != null) {
+            metrics.registerRetryBudget(this);
+        }
+    }
+
+    public void recordAttempt() {
+        attempts.incrementAndGet(bucket(currentSecond()));
+    }
+
+    public boolean tryAcquireRetry() {
+        long now = currentSecond();
+        if (sum(retries, now) < allowedRetries(now)) {
+            retries.incrementAndGet(bucket(now));
+            return true;
+        }
+        if (metrics != null) {
+            metrics.recordRetryBudgetRejection();
+        }
+        return false;
+    }
+
+    public double availableRetries() {
+        long now = currentSecond();
+        return Math.max(0d, allowedRetries(now) - sum(retries, now));
+    }
+
+    public double utilization() {
+        long now = currentSecond();
+        double allowed = allowedRetries(now);
+        return allowed <= 0 ? 0d : sum(retries, now) / allowed;
+    }
+
+    private double allowedRetries(long now) {
+        return minRetries + retryRatio * sum(attempts, now);
+    }
+
+    private int bucket(long second) {
+        int index = (int) (second % windowSeconds);
+        long owner = bucketSeconds.get(index);
+        if (owner != second && bucketSeconds.compareAndSet(index, owner, second)) {
+            attempts.set(index, 0);
+            retries.set(index, 0);
+        }
+        return index;
+    }
+
+    private long sum(AtomicLongArray counters, long now) {
+        long total = 0;
+        for (int i = 0; i < windowSeconds; i++) {
+            if (now - bucketSeconds.get(i) < windowSeconds) {
+                total += counters.get(i);
+            }
+        }
+        return total;
+    }
+
+    private long currentSecond() {
+        return currentTimeMillis.getAsLong() / 1000L;
+    }
+}
@@ -16,50 +16,195 @@
 
 package io.github.blaspat;
 
+import io.github.resilience4j.core.IntervalFunction;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
-import io.github.resilience4j.retry.RetryRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
+/**
+ * Retries transient Redis failures with exponential backoff and decorrelated jitter
+ * ({@code wait = min(maxWait, random(base, previousWait * 3))}). Every call has a hard deadline of
+ * {@code maxRetryDuration}, or the caller's {@link RedisDeadline} if that is sooner: a retry is only attempted if the
+ * backoff plus the last attempt's duration still fits and the shared {@link RetryBudget}, when set, still has tokens.
+ */
 public class RetryManager {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
-    private final Retry retry;
+    private final int maxAttempts;
+    private final long baseWaitNanos;
+    private final long maxWaitNanos;
+    private final long maxRetryNanos;
+    private RetryBudget retryBudget;
+    private Retry retry;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "redis-retry-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public RetryManager(
             int maxAttempts,
             Duration waitDuration,
             Duration maxRetryDuration) {
+        this(maxAttempts, waitDuration, waitDuration.multipliedBy(10), maxRetryDuration);
+    }
 
-        RetryConfig config = RetryConfig.custom()
-                .maxAttempts(maxAttempts)
-                .waitDuration(waitDuration)
-                .retryExceptions(Exception.class)
-                .build();
+    public RetryManager(
+            int maxAttempts,
+            Duration waitDuration,
+            Duration maxWaitDuration,
+            Duration maxRetryDuration) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseWaitNanos = Math.max(1L, waitDuration.toNanos());
+        this.maxWaitNanos = Math.max(baseWaitNanos, maxWaitDuration.toNanos());
+        this.maxRetryNanos = maxRetryDuration.toNanos();
+    }
 
-        RetryRegistry registry = RetryRegistry.of(config);
-        this.retry = registry.retry("redis");
+    public void setRetryBudget(RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+    }
 
-        this.retry.getEventPublisher()
-                .onRetry(event ->
-                        logger.warn("Redis retry attempt #{} due to: {}",
-                                event.getNumberOfRetryAttempts(),
-                                event.getLastThrowable().getMessage()));
+    /**
+     * resilience4j {@link Retry} with the same attempts, exponential random backoff and transient-error filter, for
+     * decorating calls made outside this library. It applies neither the per-call deadline nor the retry budget.
+     *
+     * @deprecated retries no longer go through resilience4j; use {@link #execute(Supplier)} or
+     * {@link #execute(Runnable)}
+     */
+    @Deprecated
+    public synchronized Retry getRetry() {
+        if (retry == null) {
+            retry = Retry.of("redis", RetryConfig.custom()
+                    .maxAttempts(maxAttempts)
+                    .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(
+                            Duration.ofNanos(baseWaitNanos), 3.0, Duration.ofNanos(maxWaitNanos)))
+                    .retryOnException(RedisErrorClassifier::isTransient)
+                    .build());
+        }
+        return retry;
     }
 
     public <T> T execute(Supplier<T> supplier) {
-        return Retry.decorateSupplier(retry, supplier).get();
+        recordAttempt();
+        long deadline = deadline();
+        long previousWait = baseWaitNanos;
+        for (int attempt = 1; ; attempt++) {
+            long attemptStart = System.nanoTime();
+            try {
+                return supplier.get();
+            } catch (RuntimeException e) {
+                long now = System.nanoTime();
+                long wait = nextWait(previousWait);
+                if (!shouldRetry(e, attempt, now - attemptStart, now + wait, deadline)) {
+                    throw e;
+                }
+                logRetry(attempt, wait, e);
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                previousWait = wait;
+            }
+        }
     }
 
     public void execute(Runnable runnable) {
-        Retry.decorateRunnable(retry, runnable).run();
+        execute(() -> {
+            runnable.run();
+            return null;
+        });
     }
 
-    public Retry getRetry() {
-        return retry;
+    public <T> CompletionStage<T> executeAsync(Supplier<CompletionStage<T>> supplier) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        recordAttempt();
+        attemptAsync(supplier, result, 1, baseWaitNanos, deadline());
+        return result;
+    }
+
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private <T> void attemptAsync(
+            Supplier<CompletionStage<T>> supplier,
+            CompletableFuture<T> result,
+            int attempt,
+            long previousWait,
+            long deadline) {
+        long attemptStart = System.nanoTime();
+        CompletionStage<T> stage;
+        try {
+            stage = supplier.get();
+        } catch (RuntimeException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            stage = failed;
+        }
+        stage.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = RedisErrorClassifier.unwrap(throwable);
+            long now = System.nanoTime();
+            long wait = nextWait(previousWait);
+            if (!shouldRetry(cause, attempt, now - attemptStart, now + wait, deadline)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            logRetry(attempt, wait, cause);
+            try {
+                scheduler.schedule(() -> attemptAsync(supplier, result, attempt + 1, wait, deadline), wait, TimeUnit.NANOSECONDS);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(cause);
+            }
+        });
+    }
+
+    private boolean shouldRetry(Throwable cause, int attempt, long lastAttemptNanos, long nextAttemptStart, long deadline) {
+        if (attempt >= maxAttempts || !RedisErrorClassifier.isTransient(cause)) {
+            return false;
+        }
+        // Give up early if the next attempt cannot finish before the deadline
+        if (nextAttemptStart + lastAttemptNanos > deadline) {
+            return false;
+        }
+        return retryBudget == null || retryBudget.tryAcquireRetry();
+    }
+
+    private long deadline() {
+        return System.nanoTime() + Math.min(maxRetryNanos, Math.max(0L, RedisDeadline.remainingNanos()));
+    }
+
+    private void recordAttempt() {
+        if (retryBudget != null) {
+            retryBudget.recordAttempt();
+        }
+    }
+
+    private long nextWait(long previousWait) {
+        long upper = Math.min(maxWaitNanos, previousWait * 3);
+        if (upper <= baseWaitNanos) {
+            return baseWaitNanos;
+        }
+        return ThreadLocalRandom.current().nextLong(baseWaitNanos, upper + 1);
+    }
+
+    private void logRetry(int attempt, long waitNanos, Throwable cause) {
+        logger.warn("Redis retry attempt #{} in {} ms due to: {}",
+                attempt, TimeUnit.NANOSECONDS.toMillis(waitNanos), cause.getMessage());
     }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.output.StatusOutput;
+import io.lettuce.core.protocol.AsyncCommand;
+import io.lettuce.core.protocol.Command;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.protocol.RedisCommand;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Pipelines a batch of commands over the connection factory's shared native connection, written with a single
+ * flush. Used in shared connection mode instead of {@code RedisTemplate.executePipelined}, which needs a dedicated
+ * connection and would open a new socket per batch without a pool. Commands of other threads interleave freely, as
+ * the batch is dispatched in one write.
+ */
+public class SharedConnectionPipeline {
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final Duration timeout;
+
+    public SharedConnectionPipeline(LettuceConnectionFactory connectionFactory, Duration timeout) {
+        this.connectionFactory = connectionFactory;
+        this.timeout = timeout;
+    }
+
+    /**
+     * SET every key to its value, with a PX expiry when {@code ttlMillis} is positive.
+     */
+    public void set(List<byte[]> keys, List<byte[]> values, long ttlMillis) {
+        List<RedisCommand<byte[], byte[], String>> commands = new ArrayList<>(keys.size());
+        SetArgs setArgs = ttlMillis > 0 ? SetArgs.Builder.px(ttlMillis) : null;
+        for (int i = 0; i < keys.size(); i++) {
+            CommandArgs<byte[], byte[]> args = new CommandArgs<>(ByteArrayCodec.INSTANCE)
+                    .addKey(keys.get(i))
+                    .addValue(values.get(i));
+            if (setArgs != null) {
+                setArgs.build(args);
+            }
+            commands.add(new AsyncCommand<>(new Command<>(CommandType.SET, new StatusOutput<>(ByteArrayCodec.INSTANCE), args)));
+        }
+        dispatch(commands);
+    }
+
+    private <T> void dispatch(List<RedisCommand<byte[], byte[], T>> commands) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            sharedConnection(connection.getNativeConnection()).dispatch(commands);
+        }
+        Future<?>[] futures = new Future<?>[commands.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = (Future<?>) commands.get(i);
+        }
+        if (!LettuceFutures.awaitAll(timeout, futures)) {
+            throw new RedisCommandTimeoutException("Pipeline of " + futures.length + " commands timed out after " + timeout);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static StatefulConnection<byte[], byte[]> sharedConnection(Object nativeConnection) {
+        if (nativeConnection instanceof RedisAsyncCommands) {
+            return ((RedisAsyncCommands<byte[], byte[]>) nativeConnection).getStatefulConnection();
+        }
+        if (nativeConnection instanceof RedisAdvancedClusterAsyncCommands) {
+            return ((RedisAdvancedClusterAsyncCommands<byte[], byte[]>) nativeConnection).getStatefulConnection();
+        }
+        throw new IllegalStateException("Unsupported native connection " + nativeConnection.getClass().getName());
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+/**
+ * Value codec plugged into {@link VersionedRedisSerializer}. Each codec owns an id that is written into the value
+ * header, so entries written by any registered codec stay readable after the write codec is switched.
+ */
+public interface ValueCodec {
+
+    /**
+     * Id stored in the header, 1 to 255; ids below 16 are reserved for built-in codecs.
+     */
+    int getId();
+
+    void encode(Object value, CodecOutput out);
+
+    Object decode(CodecInput in);
+}
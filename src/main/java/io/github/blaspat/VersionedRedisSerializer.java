@@ -0,0 +1,140 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Collection;
+
+/**
+ * Value serializer that frames every value as {@code [MAGIC, FORMAT_VERSION, codecId, payload]}. Values are read
+ * with whichever registered codec wrote them, and values without the header are read as plain JDK serialization,
+ * so entries written before a codec switch, or by another node still on the old codec, are not treated as corrupt.
+ * Without a write codec, values are written as plain JDK serialization.
+ *
+ * <p>Encoding goes through a per-thread {@link CodecOutput}, so the only allocation per value is the final array.
+ */
+public class VersionedRedisSerializer implements RedisSerializer<Object> {
+
+    // 0xB1 is neither a UTF-8 lead byte nor the start of a JDK stream (0xAC 0xED)
+    static final byte MAGIC = (byte) 0xB1;
+    static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_LENGTH = 3;
+
+    private final ValueCodec writeCodec;
+    private final ValueCodec[] readCodecs = new ValueCodec[256];
+    private final RedisSerializer<Object> legacy;
+    private final int initialBufferSize;
+    private final int maxPooledBufferSize;
+    private final ThreadLocal<PooledOutput> buffers = ThreadLocal.withInitial(PooledOutput::new);
+
+    public VersionedRedisSerializer(
+            ValueCodec writeCodec,
+            Collection<? extends ValueCodec> readCodecs,
+            ClassLoader classLoader,
+            int initialBufferSize,
+            int maxPooledBufferSize) {
+        this.writeCodec = writeCodec;
+        this.legacy = new JdkSerializationRedisSerializer(classLoader);
+        this.initialBufferSize = initialBufferSize;
+        this.maxPooledBufferSize = maxPooledBufferSize;
+        for (ValueCodec codec : readCodecs) {
+            register(codec);
+        }
+        if (writeCodec != null) {
+            register(writeCodec);
+        }
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (writeCodec == null) {
+            return legacy.serialize(value);
+        }
+        PooledOutput pooled = buffers.get();
+        // A codec calling back into this serializer gets a fresh buffer instead of clobbering the pooled one
+        CodecOutput out = pooled.inUse ? new CodecOutput(initialBufferSize) : pooled.acquire();
+        try {
+            out.writeByte(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeByte(writeCodec.getId());
+            writeCodec.encode(value, out);
+            return out.toByteArray();
+        } finally {
+            if (out == pooled.output) {
+                pooled.release();
+            }
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[0] != MAGIC) {
+            return legacy.deserialize(bytes);
+        }
+        if (bytes[1] != FORMAT_VERSION) {
+            throw new SerializationException("Unsupported value format version " + bytes[1]);
+        }
+        int codecId = bytes[2] & 0xFF;
+        ValueCodec codec = readCodecs[codecId];
+        if (codec == null) {
+            throw new SerializationException("No value codec registered for id " + codecId);
+        }
+        return codec.decode(new CodecInput(bytes, HEADER_LENGTH, bytes.length));
+    }
+
+    private void register(ValueCodec codec) {
+        int id = codec.getId();
+        if (id < 1 || id > 255) {
+            throw new IllegalArgumentException("Value codec id must be between 1 and 255, was " + id);
+        }
+        ValueCodec existing = readCodecs[id];
+        if (existing != null && existing.getClass() != codec.getClass()) {
+            throw new IllegalArgumentException("Value codec id " + id + " is used by both "
+                    + existing.getClass().getName() + " and " + codec.getClass().getName());
+        }
+        readCodecs[id] = codec;
+    }
+
+    private final class PooledOutput {
+        private CodecOutput output;
+        private boolean inUse;
+
+        private CodecOutput acquire() {
+            if (output == null) {
+                output = new CodecOutput(initialBufferSize);
+            }
+            inUse = true;
+            return output;
+        }
+
+        // Buffers grown by an unusually large value are dropped rather than kept for the thread's lifetime
+        private void release() {
+            inUse = false;
+            if (output.capacity() > maxPooledBufferSize) {
+                output = null;
+            } else {
+                output.reset();
+            }
+        }
+    }
+}
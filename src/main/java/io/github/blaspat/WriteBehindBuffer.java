@@ -0,0 +1,302 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Buffers writes per key, last write wins, and flushes them in batches from a background thread once
+ * {@code batchSize} keys are pending or every {@code flushInterval}. At most {@code maxPendingKeys} distinct keys are
+ * buffered; beyond that a write either blocks for up to {@code maxBlock} or is dropped, depending on the policy.
+ * {@link #close()} drains what is left. A write stays visible through {@link #pendingValue} until its flush completes,
+ * and cancelling a key that is being flushed waits for that flush, so a delete issued afterwards lands after the
+ * flushed write.
+ */
+public class WriteBehindBuffer<K, V> implements AutoCloseable {
+
+    public enum OverflowPolicy {
+        /** Wait for space up to {@code maxBlock}, then drop the write. */
+        BLOCK,
+        /** Drop the write immediately. */
+        DROP
+    }
+
+    /**
+     * Writes one flushed batch; every entry of a call shares the same TTL, 0 meaning none.
+     */
+    public interface Writer<K, V> {
+        void write(Map<K, V> entries, long ttlMillis);
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final ConcurrentHashMap<K, PendingWrite<V>> pending = new ConcurrentHashMap<>();
+    private final Set<K> inFlight = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final int maxPendingKeys;
+    private final Semaphore capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long maxBlockNanos;
+    private final Duration shutdownTimeout;
+    private final ResilientRedisMetrics metrics;
+    private volatile Writer<K, V> writer;
+    private volatile Thread flusher;
+    private volatile boolean closed;
+
+    public WriteBehindBuffer(
+            int maxPendingKeys,
+            int batchSize,
+            Duration flushInterval,
+            OverflowPolicy overflowPolicy,
+            Duration maxBlock,
+            Duration shutdownTimeout,
+            ResilientRedisMetrics metrics) {
+        this.maxPendingKeys = maxPendingKeys;
+        this.capacity = new Semaphore(maxPendingKeys);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.overflowPolicy = overflowPolicy;
+        this.maxBlockNanos = maxBlock.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.metrics = metrics;
+        if (metrics != null) {
+            metrics.registerWriteBehind(this);
+        }
+    }
+
+    /**
+     * Starts the flush thread; called once by the owning template.
+     */
+    public synchronized void start(Writer<K, V> writer) {
+        if (flusher != null) {
+            throw new IllegalStateException("Write-behind buffer already started");
+        }
+        this.writer = writer;
+        Thread thread = new Thread(this::run, "redis-write-behind");
+        thread.setDaemon(true);
+        flusher = thread;
+        thread.start();
+    }
+
+    /**
+     * Buffers the write. Returns false when the buffer is not running, in which case the caller writes directly.
+     */
+    public boolean offer(K key, V value, long ttlMillis) {
+        if (closed || flusher == null) {
+            return false;
+        }
+        PendingWrite<V> write = new PendingWrite<>(value, ttlMillis);
+        while (true) {
+            PendingWrite<V> previous = pending.get(key);
+            if (previous != null) {
+                if (pending.replace(key, previous, write)) {
+                    recordWriteBehind("coalesced");
+                    return true;
+                }
+                continue;
+            }
+            if (!acquireCapacity()) {
+                recordWriteBehind("dropped");
+                return true;
+            }
+            if (pending.putIfAbsent(key, write) == null) {
+                recordWriteBehind("buffered");
+                if (pendingCount() >= batchSize) {
+                    LockSupport.unpark(flusher);
+                }
+                return true;
+            }
+            // Lost the race to another writer of the same key, coalesce with it instead
+            capacity.release();
+        }
+    }
+
+    /**
+     * Value still waiting to be flushed for the key, or null.
+     */
+    public V pendingValue(K key) {
+        PendingWrite<V> write = pending.get(key);
+        return write != null ? write.value : null;
+    }
+
+    /**
+     * Drops the buffered write for the key. If the key is part of a batch being flushed, waits for that batch to be
+     * written.
+     */
+    public void cancel(K key) {
+        if (pending.remove(key) != null) {
+            capacity.release();
+        }
+        if (inFlight.contains(key)) {
+            awaitFlush();
+        }
+    }
+
+    public void cancelIf(Predicate<K> predicate) {
+        boolean flushing = false;
+        for (K key : pending.keySet()) {
+            if (predicate.test(key)) {
+                if (pending.remove(key) != null) {
+                    capacity.release();
+                }
+                flushing |= inFlight.contains(key);
+            }
+        }
+        if (flushing) {
+            awaitFlush();
+        }
+    }
+
+    public int pendingCount() {
+        return maxPendingKeys - capacity.availablePermits();
+    }
+
+    /**
+     * Stops buffering and flushes the remaining writes, waiting up to the shutdown timeout.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread thread = flusher;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            logger.warn("Write-behind buffer did not drain within {}, {} writes not flushed", shutdownTimeout, pendingCount());
+        }
+    }
+
+    private boolean acquireCapacity() {
+        if (capacity.tryAcquire()) {
+            return true;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP || maxBlockNanos <= 0) {
+            return false;
+        }
+        LockSupport.unpark(flusher);
+        try {
+            return capacity.tryAcquire(maxBlockNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void run() {
+        while (!closed) {
+            long deadline = System.nanoTime() + flushIntervalNanos;
+            long remaining;
+            while (!closed && pendingCount() < batchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+            flushPending();
+        }
+        flushPending();
+    }
+
+    private void flushPending() {
+        while (!pending.isEmpty()) {
+            // Grouped by TTL, writes of one refresh path usually share it and end up in a single batch
+            Map<Long, Map<K, V>> batch = new HashMap<>();
+            Map<K, PendingWrite<V>> taken = new HashMap<>();
+            flushLock.lock();
+            try {
+                for (K key : pending.keySet()) {
+                    // Marked in flight atomically with respect to cancel's remove, so cancel either wins or waits
+                    PendingWrite<V> write = pending.computeIfPresent(key, (k, w) -> {
+                        inFlight.add(k);
+                        return w;
+                    });
+                    if (write == null) {
+                        continue;
+                    }
+                    taken.put(key, write);
+                    batch.computeIfAbsent(write.ttlMillis, ttl -> new LinkedHashMap<>()).put(key, write.value);
+                    if (taken.size() >= batchSize) {
+                        break;
+                    }
+                }
+                for (Map.Entry<Long, Map<K, V>> group : batch.entrySet()) {
+                    flush(group.getValue(), group.getKey());
+                }
+            } finally {
+                for (Map.Entry<K, PendingWrite<V>> entry : taken.entrySet()) {
+                    // A write that replaced the flushed one stays pending for the next batch
+                    if (pending.remove(entry.getKey(), entry.getValue())) {
+                        capacity.release();
+                    }
+                }
+                inFlight.removeAll(taken.keySet());
+                flushLock.unlock();
+            }
+        }
+    }
+
+    private void awaitFlush() {
+        flushLock.lock();
+        flushLock.unlock();
+    }
+
+    private void flush(Map<K, V> entries, long ttlMillis) {
+        long start = System.nanoTime();
+        try {
+            writer.write(entries, ttlMillis);
+        } catch (Exception e) {
+            logger.error("Write-behind flush of {} keys failed: {}", entries.size(), e.getMessage());
+        } finally {
+            if (metrics != null) {
+                metrics.recordWriteBehindFlush(entries.size(), System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void recordWriteBehind(String outcome) {
+        if (metrics != null) {
+            metrics.recordWriteBehind(outcome);
+        }
+    }
+
+    private static final class PendingWrite<V> {
+        private final V value;
+        private final long ttlMillis;
+
+        private PendingWrite(V value, long ttlMillis) {
+            this.value = value;
+            this.ttlMillis = ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 4, 40, 0.2, 1.5, 600, null);
+
+    @Test
+    void rejectsCallsOverTheLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        assertFalse(limiter.tryAcquire());
+        assertEquals(10, limiter.getInFlight());
+    }
+
+    @Test
+    void limitGrowsWhileTheRttIsStable() {
+        saturate(RTT);
+
+        assertTrue(limiter.getLimit() > 10, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void limitShrinksWhenTheRttRises() {
+        saturate(RTT);
+        int grown = limiter.getLimit();
+
+        saturate(RTT * 10);
+
+        assertTrue(limiter.getLimit() < grown, grown + " -> " + limiter.getLimit());
+    }
+
+    @Test
+    void limitShrinksOnDrops() {
+        limiter.tryAcquire();
+        limiter.release(RTT, true);
+
+        assertEquals(9, limiter.getLimit());
+    }
+
+    @Test
+    void limitStaysWithinItsBounds() {
+        for (int i = 0; i < 50; i++) {
+            saturate(RTT);
+        }
+        assertEquals(40, limiter.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(RTT, true);
+        }
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void applicationLimitedSamplesDoNotMoveTheLimit() {
+        limiter.tryAcquire();
+        limiter.release(RTT, false);
+        // One call in flight against a limit of 10 says nothing about what Redis can take, even when it is slow
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(RTT * 100, false);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    // Fills the current limit, then releases every call with the same RTT
+    private void saturate(long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(rttNanos, false);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerManagerTest {
+
+    private final CircuitBreakerManager manager = new CircuitBreakerManager(
+            50, 100, Duration.ofSeconds(1), Duration.ofMinutes(1), 1, 4, 4);
+
+    @Test
+    void failingWritesDoNotOpenTheReadBreaker() {
+        assertEquals("value", manager.execute("read", () -> "value"));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(QueryTimeoutException.class, () -> manager.execute("write", () -> {
+                throw new QueryTimeoutException("write timed out");
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, manager.getCircuitBreaker("write").getState());
+        assertEquals(CircuitBreaker.State.CLOSED, manager.getCircuitBreaker("read").getState());
+        assertTrue(manager.isOpen());
+        assertThrows(CallNotPermittedException.class, () -> manager.execute("write", () -> "value"));
+        assertEquals("value", manager.execute("read", () -> "value"));
+    }
+
+    @Test
+    void sharedBreakerOpensForEveryCategoryWhenPerNameIsDisabled() {
+        manager.setPerName(false);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(QueryTimeoutException.class, () -> manager.execute("write", () -> {
+                throw new QueryTimeoutException("write timed out");
+            }));
+        }
+
+        assertThrows(CallNotPermittedException.class, () -> manager.execute("read", () -> "value"));
+        assertEquals(CircuitBreaker.State.OPEN, manager.getCircuitBreaker("read").getState());
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import io.lettuce.core.protocol.Command;
+import io.lettuce.core.protocol.CommandType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandTimeoutsTest {
+
+    private static final long WINDOW_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    @Test
+    void bucketUpperBoundCoversTheSample() {
+        for (long nanos = 4; nanos < TimeUnit.SECONDS.toNanos(10); nanos = nanos * 3 + 1) {
+            long upperBound = CommandTimeouts.LatencyWindow.upperBound(CommandTimeouts.LatencyWindow.bucket(nanos));
+            assertTrue(upperBound > nanos && upperBound <= nanos * 1.25 + 1, nanos + " -> " + upperBound);
+        }
+    }
+
+    @Test
+    void publishesThePercentileOfTheWindow() {
+        CommandTimeouts.LatencyWindow window = new CommandTimeouts.LatencyWindow(WINDOW_NANOS, 1);
+        record(window, 99, 1_000);
+        record(window, 1, 1_000_000);
+        window.rotate();
+        assertEquals(1_024, window.p99Nanos);
+
+        // Counts start over with each window
+        record(window, 98, 1_000);
+        record(window, 2, 1_000_000);
+        window.rotate();
+        assertEquals(1_048_576, window.p99Nanos);
+    }
+
+    @Test
+    void keepsTheLastPercentileWhenAWindowHasTooFewSamples() {
+        CommandTimeouts.LatencyWindow window = new CommandTimeouts.LatencyWindow(WINDOW_NANOS, 10);
+        record(window, 9, 1_000);
+        window.rotate();
+        assertEquals(0, window.p99Nanos);
+
+        record(window, 10, 1_000);
+        window.rotate();
+        record(window, 9, 1_000_000);
+        window.rotate();
+        assertEquals(1_024, window.p99Nanos);
+    }
+
+    @Test
+    void adaptiveTimeoutIsTheScaledPercentileWithinFloorAndCeiling() {
+        CommandTimeouts timeouts = timeouts(1);
+        CommandTimeouts.LatencyWindow window = timeouts.window(CommandTimeouts.Kind.GET);
+
+        record(window, 1, TimeUnit.MILLISECONDS.toNanos(10));
+        window.rotate();
+        assertEquals(Duration.ofNanos(2 * 10_485_760L), timeouts.currentTimeout(CommandTimeouts.Kind.GET));
+
+        record(window, 1, 1_000);
+        window.rotate();
+        assertEquals(Duration.ofMillis(1), timeouts.currentTimeout(CommandTimeouts.Kind.GET));
+
+        record(window, 1, TimeUnit.SECONDS.toNanos(1));
+        window.rotate();
+        assertEquals(Duration.ofMillis(100), timeouts.currentTimeout(CommandTimeouts.Kind.GET));
+    }
+
+    @Test
+    void configuredTimeoutAppliesUntilAWindowHasEnoughSamples() {
+        CommandTimeouts timeouts = timeouts(10);
+        CommandTimeouts.LatencyWindow window = timeouts.window(CommandTimeouts.Kind.GET);
+
+        record(window, 9, TimeUnit.MILLISECONDS.toNanos(10));
+        window.rotate();
+
+        assertEquals(Duration.ofMillis(500), timeouts.currentTimeout(CommandTimeouts.Kind.GET));
+        assertEquals(Duration.ofSeconds(1), timeouts.currentTimeout(CommandTimeouts.Kind.PUT));
+    }
+
+    @Test
+    void deadlineCapsTheCommandTimeout() {
+        CommandTimeouts timeouts = timeouts(1);
+        Command<String, String, String> get = new Command<>(CommandType.GET, null);
+
+        long timeout = RedisDeadline.call(Duration.ofMillis(50), () -> timeouts.getTimeout(get));
+
+        assertTrue(timeout > 0 && timeout <= TimeUnit.MILLISECONDS.toNanos(50), "timeout " + timeout);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), timeouts.getTimeout(get));
+    }
+
+    private static CommandTimeouts timeouts(int minSamples) {
+        Map<CommandTimeouts.Kind, Duration> configured = CommandTimeouts.timeouts();
+        configured.put(CommandTimeouts.Kind.GET, Duration.ofMillis(500));
+        return new CommandTimeouts(Duration.ofSeconds(1), configured, Duration.ofHours(1), minSamples, 2.0,
+                Duration.ofMillis(1), Duration.ofMillis(100));
+    }
+
+    private static void record(CommandTimeouts.LatencyWindow window, int samples, long nanos) {
+        for (int i = 0; i < samples; i++) {
+            window.record(nanos);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompressingRedisSerializerTest {
+
+    private static final int MAX_DECOMPRESSED_BYTES = 1024 * 1024;
+
+    private final CompressingRedisSerializer serializer = new CompressingRedisSerializer(
+            RedisSerializer.java(), "deflate", 1, 64, MAX_DECOMPRESSED_BYTES, null);
+
+    @Test
+    void roundTripsCompressedValues() {
+        char[] chars = new char[4096];
+        Arrays.fill(chars, 'a');
+        String value = new String(chars);
+
+        byte[] stored = serializer.serialize(value);
+
+        assertEquals(CompressingRedisSerializer.MAGIC, stored[0]);
+        assertEquals(value, serializer.deserialize(stored));
+    }
+
+    @Test
+    void rejectsOriginalLengthAboveTheMaximumBeforeAllocating() {
+        int length = Integer.MAX_VALUE - 8;
+        byte[] stored = {CompressingRedisSerializer.MAGIC, 1,
+                (byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length, 0x03, 0x00};
+
+        SerializationException e = assertThrows(SerializationException.class, () -> serializer.deserialize(stored));
+        assertEquals("Original length " + length + " exceeds the maximum decompressed size of "
+                + MAX_DECOMPRESSED_BYTES + " bytes", e.getMessage());
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EarlyRefreshEntryTest {
+
+    @Test
+    void subMillisecondLoadsStillRefreshEarly() {
+        // Half a millisecond to recompute, expiring in one: refreshes with probability e^-2 per read
+        EarlyRefreshEntry entry = new EarlyRefreshEntry("value", 500, System.currentTimeMillis() + 1);
+        boolean refreshed = false;
+        for (int i = 0; i < 1000 && !refreshed; i++) {
+            refreshed = entry.shouldRefresh(1.0);
+        }
+        assertTrue(refreshed);
+    }
+}
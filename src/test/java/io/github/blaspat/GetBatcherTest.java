@@ -0,0 +1,148 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GetBatcherTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch firstLoadStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstLoad = new CountDownLatch(1);
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        releaseFirstLoad.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void nextBatchIsCollectedWhileTheLeaderLoads() throws Exception {
+        GetBatcher<String, String> batcher = new GetBatcher<>(10, Duration.ofMillis(5), blockingFirstLoad(this::values), null);
+        Future<String> first = executor.submit(() -> batcher.get("a"));
+        assertTrue(firstLoadStarted.await(5, TimeUnit.SECONDS));
+
+        assertEquals("b-value", executor.submit(() -> batcher.get("b")).get(5, TimeUnit.SECONDS));
+        assertFalse(first.isDone());
+
+        releaseFirstLoad.countDown();
+        assertEquals("a-value", first.get(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(Collections.singletonList("a"), Collections.singletonList("b")), batches);
+    }
+
+    @Test
+    void fullBatchWakesTheLeaderBeforeTheWindowEnds() throws Exception {
+        GetBatcher<String, String> batcher = new GetBatcher<>(3, Duration.ofMinutes(1), blockingFirstLoad(this::values), null);
+        executor.submit(() -> batcher.get("a"));
+        assertTrue(firstLoadStarted.await(5, TimeUnit.SECONDS));
+
+        List<Future<String>> reads = Arrays.asList(
+                executor.submit(() -> batcher.get("b")),
+                executor.submit(() -> batcher.get("c")),
+                executor.submit(() -> batcher.get("d")));
+
+        for (Future<String> read : reads) {
+            read.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(2, batches.size());
+        assertEquals(3, batches.get(1).size());
+    }
+
+    @Test
+    void errorFromTheLoaderReachesEveryWaiter() throws Exception {
+        Error failure = new Error("load failed");
+        GetBatcher<String, String> batcher = new GetBatcher<>(2, Duration.ofMinutes(1), blockingFirstLoad(keys -> {
+            if (keys.contains("a")) {
+                return values(keys);
+            }
+            throw failure;
+        }), null);
+        executor.submit(() -> batcher.get("a"));
+        assertTrue(firstLoadStarted.await(5, TimeUnit.SECONDS));
+
+        Future<String> b = executor.submit(() -> batcher.get("b"));
+        Future<String> c = executor.submit(() -> batcher.get("c"));
+
+        assertSame(failure, assertThrows(ExecutionException.class, () -> b.get(5, TimeUnit.SECONDS)).getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, () -> c.get(5, TimeUnit.SECONDS)).getCause());
+        assertEquals(new HashSet<>(Arrays.asList("b", "c")), new HashSet<>(batches.get(1)));
+    }
+
+    @Test
+    void interruptedCallerStillReadsAndKeepsItsInterruptFlag() throws Exception {
+        GetBatcher<String, String> batcher = new GetBatcher<>(10, Duration.ofMillis(5), keys -> {
+            // The load serves the whole batch, so it must not see one caller's interrupt
+            assertFalse(Thread.currentThread().isInterrupted());
+            return values(keys);
+        }, null);
+
+        Future<Boolean> read = executor.submit(() -> {
+            Thread.currentThread().interrupt();
+            assertEquals("a-value", batcher.get("a"));
+            return Thread.currentThread().isInterrupted();
+        });
+
+        assertTrue(read.get(5, TimeUnit.SECONDS));
+    }
+
+    private Function<List<String>, Map<String, String>> blockingFirstLoad(Function<List<String>, Map<String, String>> loader) {
+        return keys -> {
+            batches.add(keys);
+            if (batches.size() == 1) {
+                firstLoadStarted.countDown();
+                try {
+                    releaseFirstLoad.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return loader.apply(keys);
+        };
+    }
+
+    private Map<String, String> values(List<String> keys) {
+        Map<String, String> values = new HashMap<>();
+        for (String key : keys) {
+            values.put(key, key + "-value");
+        }
+        return values;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgedReaderTest {
+
+    private LettuceConnectionFactory connectionFactory;
+
+    @BeforeEach
+    void setUp() {
+        // Never connected to, every read is answered by the stubbed value operations
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", 1));
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void losingReplicaReadIsCancelledAndCloseRunsTheCloseAction() {
+        CountDownLatch replicaCancelled = new CountDownLatch(1);
+        AtomicBoolean closed = new AtomicBoolean();
+        HedgedReader<String, String> reader = new HedgedReader<>(
+                template(Mono.<String>never().doOnCancel(replicaCancelled::countDown)),
+                template(Mono.just("value")),
+                0.99, Duration.ofMillis(1), Duration.ofMillis(1), 1.0, null, () -> closed.set(true));
+
+        assertEquals("value", reader.get("key"));
+        reader.close();
+
+        assertTrue(await(replicaCancelled));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void losingHedgeReadIsCancelled() {
+        CountDownLatch hedgeCancelled = new CountDownLatch(1);
+        HedgedReader<String, String> reader = new HedgedReader<>(
+                template(Mono.just("value").delayElement(Duration.ofMillis(50))),
+                template(Mono.<String>never().doOnCancel(hedgeCancelled::countDown)),
+                0.99, Duration.ofMillis(1), Duration.ofMillis(1), 1.0, null, null);
+
+        assertEquals("value", reader.get("key"));
+        assertTrue(await(hedgeCancelled));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ReactiveRedisTemplate<String, String> template(Mono<String> read) {
+        ReactiveValueOperations<String, String> operations = (ReactiveValueOperations<String, String>) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{ReactiveValueOperations.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("get")) {
+                        return read;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return new ReactiveRedisTemplate<String, String>(connectionFactory, RedisSerializationContext.string()) {
+            @Override
+            public ReactiveValueOperations<String, String> opsForValue() {
+                return operations;
+            }
+        };
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotKeyDetectorTest {
+
+    // Every access counted, hot at 10 accesses per 10 s window
+    private final HotKeyDetector detector = new HotKeyDetector(1, 1024, 4, 2, Duration.ofSeconds(10), 1.0, null);
+
+    @Test
+    void keysWithCollidingHashCodesAreCountedApart() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        for (int i = 0; i < 10; i++) {
+            detector.add("Aa");
+        }
+        detector.add("BB");
+
+        assertTrue(detector.isHot("Aa"));
+        assertFalse(detector.isHot("BB"));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NearCacheTest {
+
+    private final NearCache<String, String> nearCache = new NearCache<>(100, Duration.ofMinutes(1), null);
+
+    @Test
+    void readRacingWithAWriteIsNotCached() {
+        nearCache.invalidate("key", "local");
+        // A read starting after the invalidation but before the write lands sees the old value
+        long generation = nearCache.generation("key");
+        nearCache.invalidateAfterWrite("key");
+
+        nearCache.putIfUnchanged("key", "old", generation);
+
+        assertNull(nearCache.get("key"));
+    }
+
+    @Test
+    void readAfterTheWriteIsCached() {
+        nearCache.invalidate("key", "local");
+        nearCache.invalidateAfterWrite("key");
+        long generation = nearCache.generation("key");
+
+        nearCache.putIfUnchanged("key", "new", generation);
+
+        assertEquals("new", nearCache.get("key"));
+    }
+
+    @Test
+    void bypassedCacheNeitherServesNorStoresValues() {
+        nearCache.putIfUnchanged("cached", "value", nearCache.generation("cached"));
+        nearCache.setBypassed(true);
+
+        nearCache.putIfUnchanged("key", "value", nearCache.generation("key"));
+
+        assertNull(nearCache.get("cached"));
+        nearCache.setBypassed(false);
+        assertNull(nearCache.get("key"));
+        assertEquals("value", nearCache.get("cached"));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import io.lettuce.core.RedisCommandTimeoutException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisDeadlineTest {
+
+    @Test
+    void nestedDeadlineCannotExtendTheOuterOne() {
+        long remaining = RedisDeadline.call(Duration.ofMillis(100),
+                () -> RedisDeadline.call(Duration.ofSeconds(10), RedisDeadline::remainingNanos));
+
+        assertTrue(remaining <= TimeUnit.MILLISECONDS.toNanos(100), "remaining " + remaining);
+    }
+
+    @Test
+    void nestedDeadlineCanShortenTheOuterOneUntilItReturns() {
+        RedisDeadline.run(Duration.ofSeconds(10), () -> {
+            long inner = RedisDeadline.call(Duration.ofMillis(100), RedisDeadline::remainingNanos);
+            assertTrue(inner <= TimeUnit.MILLISECONDS.toNanos(100), "inner " + inner);
+            assertTrue(RedisDeadline.remainingNanos() > TimeUnit.SECONDS.toNanos(5));
+        });
+
+        assertFalse(RedisDeadline.isSet());
+        assertEquals(Long.MAX_VALUE, RedisDeadline.remainingNanos());
+    }
+
+    @Test
+    void checkFailsOnceTheDeadlineHasPassed() {
+        RedisDeadline.run(Duration.ZERO, () ->
+                assertThrows(RedisCommandTimeoutException.class, RedisDeadline::check));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResilientCacheDecoratorTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch firstLookupMissed = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstLookup = new CountDownLatch(1);
+    private final CountDownLatch loaderStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseLoader = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        releaseFirstLookup.countDown();
+        releaseLoader.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void loaderRunsOnceWhenALoadFinishesBetweenLookupAndLeadership() throws Exception {
+        AtomicBoolean gateNextLookup = new AtomicBoolean(true);
+        // The first lookup misses, then stalls until another caller's load has been stored and released
+        ResilientCacheDecorator cache = new ResilientCacheDecorator(new ConcurrentMapCache("users") {
+            @Override
+            public ValueWrapper get(Object key) {
+                ValueWrapper wrapper = super.get(key);
+                if (gateNextLookup.compareAndSet(true, false)) {
+                    firstLookupMissed.countDown();
+                    await(releaseFirstLookup);
+                }
+                return wrapper;
+            }
+        });
+
+        Future<String> late = executor.submit(() -> cache.get("key", this::load));
+        assertTrue(firstLookupMissed.await(5, TimeUnit.SECONDS));
+        Future<String> leader = executor.submit(() -> cache.get("key", this::load));
+        assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+        Future<String> coalesced = executor.submit(() -> cache.get("key", this::load));
+
+        releaseLoader.countDown();
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("value", coalesced.get(5, TimeUnit.SECONDS));
+        releaseFirstLookup.countDown();
+        assertEquals("value", late.get(5, TimeUnit.SECONDS));
+
+        assertEquals(1, loads.get());
+    }
+
+    private String load() {
+        loads.incrementAndGet();
+        loaderStarted.countDown();
+        await(releaseLoader);
+        return "value";
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResilientRedisCacheManagerTest {
+
+    private LettuceConnectionFactory connectionFactory;
+
+    @BeforeEach
+    void setUp() {
+        // Never connected to, cache configurations are read without touching Redis
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", 1));
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void cacheConfigurationsSeeThroughTheDecorator() {
+        RedisCacheConfiguration users = RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(5));
+        ResilientRedisCacheManager cacheManager = new ResilientRedisCacheManager(
+                RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory),
+                RedisCacheConfiguration.defaultCacheConfig(),
+                Collections.singletonMap("users", users));
+        cacheManager.setConnectionFactory(connectionFactory);
+        cacheManager.afterPropertiesSet();
+
+        assertTrue(cacheManager.getCache("users") instanceof ResilientCacheDecorator);
+        Map<String, RedisCacheConfiguration> configurations = cacheManager.getCacheConfigurations();
+        assertEquals(Duration.ofMinutes(5), configurations.get("users").getTtl());
+    }
+}
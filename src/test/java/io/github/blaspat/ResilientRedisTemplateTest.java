@@ -0,0 +1,211 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResilientRedisTemplateTest {
+
+    private static final Duration MAX_STALENESS = Duration.ofMillis(500);
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, String> redisTemplate;
+    private SimpleMeterRegistry registry;
+    private LastKnownGoodStore lastKnownGood;
+    private ResilientRedisTemplate<String, String> template;
+
+    @BeforeEach
+    void setUp() {
+        // Nothing listens on port 1, so every command fails fast with a connection error
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", 1));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setDefaultSerializer(StringRedisSerializer.UTF_8);
+        redisTemplate.afterPropertiesSet();
+
+        registry = new SimpleMeterRegistry();
+        ResilientRedisMetrics metrics = new ResilientRedisMetrics(registry);
+        lastKnownGood = new LastKnownGoodStore(1 << 20, MAX_STALENESS, 64, metrics);
+        template = new ResilientRedisTemplate<>(redisTemplate, null, null, metrics);
+        template.setLastKnownGood(lastKnownGood);
+        // The first failed connect pays for client start-up; keep that out of the timed part of each test
+        template.get("warm-up");
+    }
+
+    @AfterEach
+    void tearDown() {
+        template.close();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void staleEntryExpiresWhileBatching() throws Exception {
+        template.setGetBatching(64, Duration.ofMillis(20));
+        int threads = 4;
+        for (int i = 0; i < threads; i++) {
+            lastKnownGood.record("key-" + i, "value-" + i);
+        }
+        assertEquals("value-0", template.get("key-0"));
+
+        // Keep batched reads of the stale keys going well past the staleness bound
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(threads);
+            long until = System.nanoTime() + MAX_STALENESS.multipliedBy(3).toNanos();
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String key = "key-" + i;
+                readers.add(executor.submit(() -> {
+                    barrier.await();
+                    while (System.nanoTime() < until) {
+                        template.get(key);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> reader : readers) {
+                reader.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(registry.get("redis.batch.size").summary().max() > 1, "reads were never batched");
+        for (int i = 0; i < threads; i++) {
+            assertNull(template.get("key-" + i));
+        }
+    }
+
+    @Test
+    void writeRejectedByTheConcurrencyLimitIsRecordedAsAnError() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 0.2, 1.5, 600, null);
+        template.setConcurrencyLimiter(limiter);
+        assertTrue(limiter.tryAcquire());
+
+        template.put("key", "value");
+
+        assertEquals(1.0, registry.get("redis.error")
+                .tag("operation", RedisOperation.PUT.tag())
+                .tag("error", ConcurrencyLimitExceededException.class.getSimpleName())
+                .counter().count());
+    }
+
+    @Test
+    void failedWriteIsNotRecordedAsLastKnownGood() {
+        template.put("key", "value");
+
+        assertNull(template.get("key"));
+    }
+
+    @Test
+    void clearKeepsCacheEntriesOfTheSharedStore() {
+        ResilientCacheDecorator.StoreKey cacheKey = new ResilientCacheDecorator.StoreKey("users", "key");
+        lastKnownGood.record("key", "value");
+        lastKnownGood.record(cacheKey, "cached");
+
+        template.clear();
+
+        assertNull(lastKnownGood.getStale("key", RedisOperation.GET));
+        assertEquals("cached", lastKnownGood.getStale(cacheKey, RedisOperation.GET));
+    }
+
+    @Test
+    void writeIsNotSentOnceTheRequestDeadlineHasPassed() {
+        RedisDeadline.run(Duration.ZERO, () -> template.put("key", "value"));
+
+        assertEquals(1.0, registry.get("redis.error")
+                .tag("operation", RedisOperation.PUT.tag())
+                .tag("error", RedisCommandTimeoutException.class.getSimpleName())
+                .counter().count());
+        assertTrue(registry.find("redis.error")
+                .tag("operation", RedisOperation.PUT.tag())
+                .tag("error", RedisConnectionFailureException.class.getSimpleName())
+                .counters().isEmpty());
+    }
+
+    @Test
+    void shedReadIsAMissAndShedWriteFailsWithTheCircuitBreakerEnabled() {
+        ResilientRedisTemplate<String, String> guarded = new ResilientRedisTemplate<>(redisTemplate,
+                new CircuitBreakerManager(50, 100, Duration.ofSeconds(1), Duration.ofSeconds(1), 1, 10, 10), null, null);
+        guarded.setBulkheadManager(new BulkheadManager(0, Duration.ZERO, null));
+
+        assertNull(guarded.get("key"));
+        assertThrows(BulkheadFullException.class, () -> guarded.put("key", "value"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void multiGetSerializationFallbackCountsEachKeyOnce() {
+        ValueOperations<String, String> values = (ValueOperations<String, String>) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{ValueOperations.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("multiGet")) {
+                        throw new SerializationException("corrupt entry");
+                    }
+                    if (method.getName().equals("get")) {
+                        return "a".equals(args[0]) ? "value" : null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        RedisTemplate<String, String> stubbed = new RedisTemplate<String, String>() {
+            @Override
+            public ValueOperations<String, String> opsForValue() {
+                return values;
+            }
+        };
+        ResilientRedisTemplate<String, String> fallingBack = new ResilientRedisTemplate<>(stubbed, null, null, new ResilientRedisMetrics(registry));
+
+        Map<String, String> result = fallingBack.multiGet(Arrays.asList("a", "b"));
+
+        assertEquals(Collections.singletonMap("a", "value"), result);
+        for (RedisOperation operation : new RedisOperation[]{RedisOperation.GET, RedisOperation.MULTI_GET}) {
+            double expected = operation == RedisOperation.MULTI_GET ? 1.0 : 0.0;
+            assertEquals(expected, registry.get("redis.cache.hit").tag("operation", operation.tag()).counter().count());
+            assertEquals(expected, registry.get("redis.cache.miss").tag("operation", operation.tag()).counter().count());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import io.lettuce.core.RedisConnectionException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryBudgetTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    void refusesRetriesOnceTheRatioIsUsedUp() {
+        RetryBudget budget = new RetryBudget(0.5, 0, Duration.ofSeconds(10), null, now::get);
+        for (int i = 0; i < 10; i++) {
+            budget.recordAttempt();
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(budget.tryAcquireRetry());
+        }
+        assertFalse(budget.tryAcquireRetry());
+        assertEquals(1d, budget.utilization());
+    }
+
+    @Test
+    void floorAllowsRetriesWithoutTraffic() {
+        RetryBudget budget = new RetryBudget(0.1, 2, Duration.ofSeconds(1), null, now::get);
+
+        assertTrue(budget.tryAcquireRetry());
+        assertTrue(budget.tryAcquireRetry());
+        assertFalse(budget.tryAcquireRetry());
+    }
+
+    @Test
+    void retriesAreAllowedAgainOnceTheWindowSlides() {
+        RetryBudget budget = new RetryBudget(0, 1, Duration.ofSeconds(2), null, now::get);
+        assertTrue(budget.tryAcquireRetry());
+        assertTrue(budget.tryAcquireRetry());
+        assertFalse(budget.tryAcquireRetry());
+
+        now.addAndGet(1_000);
+        assertFalse(budget.tryAcquireRetry());
+
+        now.addAndGet(1_000);
+        assertEquals(2d, budget.availableRetries());
+        assertTrue(budget.tryAcquireRetry());
+    }
+
+    @Test
+    void retryManagerStopsRetryingOnceTheBudgetIsSpent() {
+        RetryManager retryManager = new RetryManager(3, Duration.ofMillis(1), Duration.ofSeconds(1));
+        retryManager.setRetryBudget(new RetryBudget(0, 1, Duration.ofSeconds(1), null, now::get));
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(RedisConnectionException.class, () -> retryManager.execute(() -> {
+            attempts.incrementAndGet();
+            throw new RedisConnectionException("down");
+        }));
+        assertEquals(2, attempts.get());
+
+        attempts.set(0);
+        assertThrows(RedisConnectionException.class, () -> retryManager.execute(() -> {
+            attempts.incrementAndGet();
+            throw new RedisConnectionException("down");
+        }));
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import io.github.resilience4j.retry.Retry;
+import io.lettuce.core.RedisConnectionException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RetryManagerTest {
+
+    private final RetryManager retryManager = new RetryManager(3, Duration.ofMillis(1), Duration.ofSeconds(1));
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void deprecatedRetryMirrorsThePolicy() {
+        Retry retry = retryManager.getRetry();
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(RedisConnectionException.class, () -> retry.executeRunnable(() -> {
+            attempts.incrementAndGet();
+            throw new RedisConnectionException("down");
+        }));
+
+        assertEquals(3, attempts.get());
+        assertSame(retry, retryManager.getRetry());
+    }
+
+    @Test
+    void retriesTransientFailuresOnly() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> retryManager.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("not transient");
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VersionedRedisSerializerTest {
+
+    private static final int STRING_TAG = 11;
+    private static final int BYTES_TAG = 12;
+
+    private final BinaryValueCodec codec = new BinaryValueCodec(getClass().getClassLoader());
+    private final VersionedRedisSerializer serializer = new VersionedRedisSerializer(
+            codec, Collections.emptyList(), getClass().getClassLoader(), 64, 1024);
+
+    @Test
+    void roundTripsEveryTag() {
+        assertRoundTrip(NullValue.INSTANCE, 1);
+        assertRoundTrip(true, 2);
+        assertRoundTrip(false, 3);
+        assertRoundTrip(-42, 4);
+        assertRoundTrip(Long.MIN_VALUE, 5);
+        assertRoundTrip(Math.PI, 6);
+        assertRoundTrip(-1.5f, 7);
+        assertRoundTrip((short) -300, 8);
+        assertRoundTrip((byte) -7, 9);
+        assertRoundTrip('\u00e9', 10);
+        assertRoundTrip("ascii", 11);
+        assertRoundTrip("caf\u00e9 \ud83d\ude00", 11);
+        assertRoundTrip(new BigInteger("-123456789012345678901234567890"), 13);
+        assertRoundTrip(new BigDecimal("-12345678901234567890.0042"), 14);
+        assertRoundTrip(UUID.randomUUID(), 15);
+        assertRoundTrip(new ArrayList<>(Arrays.asList(1, "two", null)), 16);
+        assertRoundTrip(new HashSet<>(Arrays.asList(1L, 2L)), 17);
+        assertRoundTrip(new LinkedHashSet<>(Arrays.asList("b", "a")), 18);
+        HashMap<Object, Object> map = new HashMap<>();
+        map.put("key", Collections.singletonMap("nested", 1));
+        assertRoundTrip(map, 19);
+        LinkedHashMap<Object, Object> linked = new LinkedHashMap<>();
+        linked.put("z", 1);
+        linked.put("a", new ArrayList<>(Collections.singletonList(2)));
+        assertRoundTrip(linked, 20);
+        assertRoundTrip(Duration.ofSeconds(5), 127);
+
+        byte[] stored = serializer.serialize(null);
+        assertEquals(0, stored[3]);
+        assertNull(serializer.deserialize(stored));
+
+        byte[] bytes = {1, 2, 3};
+        stored = serializer.serialize(bytes);
+        assertEquals(12, stored[3]);
+        assertArrayEquals(bytes, (byte[]) serializer.deserialize(stored));
+    }
+
+    @Test
+    void roundTripsEarlyRefreshEntries() {
+        EarlyRefreshEntry entry = new EarlyRefreshEntry(new ArrayList<>(Collections.singletonList("v")), 750, 1234567L);
+
+        byte[] stored = serializer.serialize(entry);
+        EarlyRefreshEntry read = (EarlyRefreshEntry) serializer.deserialize(stored);
+
+        assertEquals(21, stored[3]);
+        assertEquals(entry.getValue(), read.getValue());
+        assertEquals(750, read.getComputeMicros());
+        assertEquals(1234567L, read.getExpiresAtMillis());
+    }
+
+    @Test
+    void readsValuesWithoutHeaderAsJdkSerialization() {
+        LinkedHashMap<String, Integer> value = new LinkedHashMap<>();
+        value.put("a", 1);
+        byte[] stored = new JdkSerializationRedisSerializer().serialize(value);
+
+        assertEquals(value, serializer.deserialize(stored));
+        assertEquals("plain", new VersionedRedisSerializer(null, Collections.singletonList(codec),
+                getClass().getClassLoader(), 64, 1024).deserialize(serializer.serialize("plain")));
+    }
+
+    @Test
+    void rejectsUnknownCodecId() {
+        byte[] stored = serializer.serialize("value");
+        stored[2] = 99;
+
+        SerializationException e = assertThrows(SerializationException.class, () -> serializer.deserialize(stored));
+        assertEquals("No value codec registered for id 99", e.getMessage());
+    }
+
+    @Test
+    void rejectsUnknownFormatVersion() {
+        byte[] stored = serializer.serialize("value");
+        stored[1] = 2;
+
+        SerializationException e = assertThrows(SerializationException.class, () -> serializer.deserialize(stored));
+        assertEquals("Unsupported value format version 2", e.getMessage());
+    }
+
+    @Test
+    void codecCallingBackIntoTheSerializerDoesNotClobberThePooledBuffer() {
+        NestingCodec nesting = new NestingCodec();
+        VersionedRedisSerializer outer = new VersionedRedisSerializer(
+                nesting, Collections.singletonList(codec), getClass().getClassLoader(), 16, 1024);
+        nesting.serializer = outer;
+        List<String> value = Collections.singletonList("outer value long enough to share the pooled buffer");
+
+        byte[] stored = outer.serialize(value);
+
+        assertEquals(NestingCodec.ID, stored[2]);
+        assertEquals(value, outer.deserialize(stored));
+        // The pooled buffer is released, so the next value is written into it from the start again
+        assertEquals(value, outer.deserialize(outer.serialize(value)));
+    }
+
+    @Test
+    void truncatedValueFailsAsSerializationException() {
+        byte[] stored = serializer.serialize("truncated value");
+        byte[] truncated = Arrays.copyOf(stored, stored.length - 3);
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(truncated));
+    }
+
+    @Test
+    void oversizedLengthFailsAsSerializationException() {
+        // Integer.MAX_VALUE as a varint; position + length overflows past the limit check
+        byte[] oversized = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(header(STRING_TAG, oversized)));
+        assertThrows(SerializationException.class, () -> serializer.deserialize(header(BYTES_TAG, oversized)));
+    }
+
+    private void assertRoundTrip(Object value, int tag) {
+        byte[] stored = serializer.serialize(value);
+        Object read = serializer.deserialize(stored);
+
+        assertEquals(tag, stored[3] & 0xFF);
+        assertEquals(value, read);
+        assertSame(value.getClass(), read.getClass());
+    }
+
+    private static byte[] header(int tag, byte[] payload) {
+        byte[] bytes = new byte[4 + payload.length];
+        bytes[0] = VersionedRedisSerializer.MAGIC;
+        bytes[1] = VersionedRedisSerializer.FORMAT_VERSION;
+        bytes[2] = BinaryValueCodec.ID;
+        bytes[3] = (byte) tag;
+        System.arraycopy(payload, 0, bytes, 4, payload.length);
+        return bytes;
+    }
+
+    // Writes a singleton list's element as a nested value, the way a wrapping codec would delegate to the serializer
+    private static final class NestingCodec implements ValueCodec {
+
+        private static final int ID = 16;
+
+        private VersionedRedisSerializer serializer;
+
+        @Override
+        public int getId() {
+            return ID;
+        }
+
+        @Override
+        public void encode(Object value, CodecOutput out) {
+            if (value instanceof List) {
+                byte[] nested = serializer.serialize(((List<?>) value).get(0));
+                out.writeByte(1);
+                out.writeVarInt(nested.length);
+                out.writeBytes(nested, 0, nested.length);
+            } else {
+                out.writeByte(0);
+                out.writeString((String) value);
+            }
+        }
+
+        @Override
+        public Object decode(CodecInput in) {
+            if (in.readByte() == 1) {
+                return Collections.singletonList(serializer.deserialize(in.readBytes(in.readVarInt())));
+            }
+            return in.readString();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2024 Blasius Patrick
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.blaspat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindBufferTest {
+
+    private final List<Map<String, String>> batches = Collections.synchronizedList(new ArrayList<>());
+    private WriteBehindBuffer<String, String> buffer;
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.close();
+        }
+    }
+
+    @Test
+    void coalescesWritesToTheSameKey() {
+        buffer = buffer(10, 100, Duration.ofHours(1), WriteBehindBuffer.OverflowPolicy.DROP);
+        buffer.start(this::record);
+
+        assertTrue(buffer.offer("a", "1", 0));
+        assertTrue(buffer.offer("a", "2", 0));
+        assertTrue(buffer.offer("b", "1", 0));
+
+        assertEquals(2, buffer.pendingCount());
+        assertEquals("2", buffer.pendingValue("a"));
+        buffer.close();
+        assertEquals(Collections.singletonList(entries("a", "2", "b", "1")), batches);
+    }
+
+    @Test
+    void dropsWritesBeyondCapacity() {
+        buffer = buffer(2, 100, Duration.ofHours(1), WriteBehindBuffer.OverflowPolicy.DROP);
+        buffer.start(this::record);
+
+        buffer.offer("a", "1", 0);
+        buffer.offer("b", "1", 0);
+        buffer.offer("c", "1", 0);
+        // A full buffer still coalesces into keys it already holds
+        buffer.offer("a", "2", 0);
+
+        assertEquals(2, buffer.pendingCount());
+        assertNull(buffer.pendingValue("c"));
+        buffer.close();
+        assertEquals(Collections.singletonList(entries("a", "2", "b", "1")), batches);
+    }
+
+    @Test
+    void blockingPolicyWaitsForAFlushToFreeSpace() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        buffer = buffer(1, 1, Duration.ofHours(1), WriteBehindBuffer.OverflowPolicy.BLOCK);
+        buffer.start((entries, ttlMillis) -> {
+            await(release);
+            record(entries, ttlMillis);
+        });
+
+        buffer.offer("a", "1", 0);
+        long start = System.nanoTime();
+        buffer.offer("b", "1", 0);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200), "offer did not block");
+        assertNull(buffer.pendingValue("b"));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> blocked = executor.submit(() -> buffer.offer("c", "1", 0));
+            Thread.sleep(50);
+            release.countDown();
+            assertTrue(blocked.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        buffer.close();
+        assertEquals(entries("a", "1"), batches.get(0));
+        assertEquals(entries("c", "1"), batches.get(1));
+    }
+
+    @Test
+    void closeDrainsPendingWritesInBatches() {
+        buffer = buffer(100, 2, Duration.ofHours(1), WriteBehindBuffer.OverflowPolicy.DROP);
+        buffer.start((entries, ttlMillis) -> {
+            // Slow enough that the size trigger cannot flush everything before close
+            sleep(20);
+            record(entries, ttlMillis);
+        });
+        for (int i = 0; i < 5; i++) {
+            buffer.offer("key-" + i, "value", 1000);
+        }
+
+        buffer.close();
+
+        assertFalse(buffer.offer("late", "value", 0));
+        assertEquals(0, buffer.pendingCount());
+        int written = 0;
+        for (Map<String, String> batch : batches) {
+            assertTrue(batch.size() <= 2);
+            written += batch.size();
+        }
+        assertEquals(5, written);
+    }
+
+    @Test
+    void flushingWriteStaysVisibleAndCancelWaitsForIt() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        buffer = buffer(10, 1, Duration.ofHours(1), WriteBehindBuffer.OverflowPolicy.DROP);
+        buffer.start((entries, ttlMillis) -> {
+            writing.countDown();
+            await(release);
+            record(entries, ttlMillis);
+        });
+
+        buffer.offer("a", "1", 0);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        assertEquals("1", buffer.pendingValue("a"));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> cancel = executor.submit(() -> buffer.cancel("a"));
+            Thread.sleep(100);
+            assertFalse(cancel.isDone(), "cancel returned while the key was being flushed");
+            release.countDown();
+            cancel.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(Collections.singletonList(entries("a", "1")), batches);
+        assertNull(buffer.pendingValue("a"));
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    private WriteBehindBuffer<String, String> buffer(
+            int maxPendingKeys, int batchSize, Duration flushInterval, WriteBehindBuffer.OverflowPolicy policy) {
+        return new WriteBehindBuffer<>(maxPendingKeys, batchSize, flushInterval, policy, Duration.ofMillis(200),
+                Duration.ofSeconds(5), null);
+    }
+
+    private void record(Map<String, String> entries, long ttlMillis) {
+        batches.add(new LinkedHashMap<>(entries));
+    }
+
+    private static Map<String, String> entries(String... keysAndValues) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            entries.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return entries;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}